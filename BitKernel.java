@@ -0,0 +1,159 @@
+/**
+ * Word operations on packed bitsets of vertices, the inner loops of BranchAndBound and CliqueEnumerator: intersecting
+ * candidate sets with adjacency rows, counting candidates, and removing the neighbours of a vertex while colouring.
+ * 
+ * The kernel is picked once, when the class is first used. If VectorBitKernel was compiled and the JVM was started with
+ * --add-modules jdk.incubator.vector, the operations run on SIMD registers as wide as the processor has (AVX2 or
+ * AVX-512 on x86); otherwise, or if the system property maxclique.simd is false, on one long at a time. Both give the
+ * same results, so which one ran never changes a clique found.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public abstract class BitKernel {
+    
+    /**
+     * System property that picks the kernel: true for the vector kernel if it can be loaded (the default), false for
+     * the scalar one.
+     */
+    static final String PROPERTY = "maxclique.simd";
+    
+    private static final BitKernel KERNEL = select();
+    
+    /**
+     * Get the kernel picked at startup.
+     * 
+     * @return  The kernel.
+     */
+    public static BitKernel get(){
+        return KERNEL;
+    }
+    
+    /**
+     * Create a kernel by name, for comparing them.
+     * 
+     * @param name  scalar or vector.
+     * @return      The kernel, or null if it cannot be loaded in this JVM.
+     */
+    public static BitKernel create(String name){
+        if(name.equals("scalar")){
+            return new Scalar();
+        }
+        if(name.equals("vector")){
+            try{
+                return (BitKernel)Class.forName("VectorBitKernel").getDeclaredConstructor().newInstance();
+            }
+            catch(Throwable e){
+                //Not compiled, or the incubator module was not added
+                return null;
+            }
+        }
+        throw new IllegalArgumentException("Unknown kernel "+name);
+    }
+    
+    /**
+     * Pick the kernel for this JVM.
+     * 
+     * @return  The vector kernel if it is wanted and can be loaded, the scalar one otherwise.
+     */
+    private static BitKernel select(){
+        BitKernel kernel = null;
+        if(!System.getProperty(PROPERTY, "true").equalsIgnoreCase("false")){
+            kernel = create("vector");
+        }
+        return kernel != null ? kernel : new Scalar();
+    }
+    
+    /**
+     * Get the name of the kernel, for reports.
+     * 
+     * @return  Name of the kernel.
+     */
+    public abstract String getName();
+    
+    /**
+     * Intersect two bitsets.
+     * 
+     * @param a         First bitset.
+     * @param b         Second bitset.
+     * @param result    Bitset to store a AND b in; may be a or b.
+     * @param words     Number of longs to intersect.
+     * @return          true if the intersection is not empty.
+     */
+    public abstract boolean and(long[] a, long[] b, long[] result, int words);
+    
+    /**
+     * Remove the members of one bitset from another, over a range of words.
+     * 
+     * @param a         Bitset to remove from.
+     * @param b         Bitset to remove.
+     * @param result    Bitset to store a AND NOT b in; may be a or b.
+     * @param from      First long to compute.
+     * @param words     Number of longs in the bitsets.
+     */
+    public abstract void andNot(long[] a, long[] b, long[] result, int from, int words);
+    
+    /**
+     * Count the members of the intersection of two bitsets, without storing it.
+     * 
+     * @param a         First bitset.
+     * @param b         Second bitset.
+     * @param words     Number of longs to intersect.
+     * @return          Number of bits set in a AND b.
+     */
+    public abstract int andCount(long[] a, long[] b, int words);
+    
+    /**
+     * Count the members of a bitset.
+     * 
+     * @param a         The bitset.
+     * @param words     Number of longs to count.
+     * @return          Number of bits set.
+     */
+    public abstract int count(long[] a, int words);
+    
+    /**
+     * One long at a time, with Long.bitCount, which the JIT compiles to a popcnt instruction.
+     */
+    static class Scalar extends BitKernel {
+        
+        @Override
+        public String getName(){
+            return "scalar";
+        }
+        
+        @Override
+        public boolean and(long[] a, long[] b, long[] result, int words){
+            long any = 0;
+            for(int w=0; w<words; ++w){
+                result[w] = a[w] & b[w];
+                any |= result[w];
+            }
+            return any != 0;
+        }
+        
+        @Override
+        public void andNot(long[] a, long[] b, long[] result, int from, int words){
+            for(int w=from; w<words; ++w){
+                result[w] = a[w] & ~b[w];
+            }
+        }
+        
+        @Override
+        public int andCount(long[] a, long[] b, int words){
+            int count = 0;
+            for(int w=0; w<words; ++w){
+                count += Long.bitCount(a[w] & b[w]);
+            }
+            return count;
+        }
+        
+        @Override
+        public int count(long[] a, int words){
+            int count = 0;
+            for(int w=0; w<words; ++w){
+                count += Long.bitCount(a[w]);
+            }
+            return count;
+        }
+    }
+}
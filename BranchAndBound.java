@@ -0,0 +1,642 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Exact maximum clique search. Branch and bound in the style of Tomita's MCQ/MCS: the candidates at every node of the
+ * search tree are held as a bitset and greedily coloured, and since the vertices of a clique all need different
+ * colours, a branch is cut as soon as the clique so far plus the number of colours left cannot beat the best clique
+ * found. Starting from the clique found by the random restarts means the cuts work from the very first node.
+ * 
+ * Dense graphs are searched as a whole. Sparse graphs are split into one small subproblem per vertex: the vertex and
+ * its neighbours that come later in the degeneracy order, of which there are at most the degeneracy of the graph. Every
+ * clique lies in the subproblem of its earliest vertex, and vertices whose core number is too low to beat the best
+ * clique are skipped altogether.
+ * 
+ * Every subproblem is copied onto the heap as an adjacency matrix. A dense graph whose matrix would not fit in half of
+ * the free heap, such as one mapped from a file because it is too large for the heap, is split as a sparse graph is,
+ * and if even the largest subproblems of the threads would not fit the search is refused with an
+ * IllegalStateException rather than run out of memory part way.
+ * 
+ * The search can run on several threads. Subproblems and the top levels of large search trees become fork-join tasks,
+ * and the best clique is shared through an atomic reference so that every thread cuts against the latest bound.
+ * Given a Budget, the search gives up once it is spent and returns the best clique found so far.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class BranchAndBound {
+    
+    /**
+     * Subproblems with at least this many vertices have the top levels of their search tree split into tasks.
+     */
+    static final int SPLIT_SIZE = 64;
+    
+    /**
+     * Number of levels of the search tree that are split into tasks.
+     */
+    static final int SPLIT_DEPTH = 2;
+    
+    /**
+     * Number of sparse subproblems searched one after another by a single task.
+     */
+    static final int ROOTS_PER_TASK = 64;
+    
+    /**
+     * Number of search tree nodes between checks of the budget, a power of 2.
+     */
+    static final int CHECK_NODES = 1024;
+    
+    /**
+     * Bitset operations of the colouring and branching, on SIMD registers if the JVM allows.
+     */
+    static final BitKernel KERNEL = BitKernel.get();
+    
+    private Graph graph;                    //  Graph to search
+    private CoreDecomposition cores;        //  Core numbers and degeneracy order of the graph
+    private AtomicReference<int[]> best;    //  Vertices of the largest clique found so far, shared by all threads
+    private Budget budget;                  //  When to give up before the search is complete, null for never
+    private boolean split;                  //  Whether the graph is split into one subproblem per vertex
+    
+    /**
+     * Set up the search for the given graph.
+     * 
+     * @param _graph    Graph to search.
+     */
+    public BranchAndBound(Graph _graph){
+        this(_graph, new CoreDecomposition(_graph));
+    }
+    
+    /**
+     * Set up the search for the given graph, reusing its core decomposition.
+     * 
+     * @param _graph    Graph to search.
+     * @param _cores    Core decomposition of the graph.
+     */
+    public BranchAndBound(Graph _graph, CoreDecomposition _cores){
+        graph = _graph;
+        cores = _cores;
+    }
+    
+    /**
+     * Set a budget for the search. Once it is spent every thread abandons its part of the search, and solve returns
+     * the best clique found so far, which isProven then reports as not known to be maximum. Only the deadline and the
+     * upper bound of the budget are used, so that a target met by the restarts does not stop the search at once.
+     * 
+     * @param _budget   The budget.
+     */
+    public void setBudget(Budget _budget){
+        budget = _budget == null ? null : _budget.withoutTarget();
+    }
+    
+    /**
+     * Check whether the clique returned by the last solve is known to be maximum: either the search was not cut short
+     * by the budget, or the clique matches the upper bound the budget knows of.
+     * 
+     * @return  true if the clique is maximum.
+     */
+    public boolean isProven(){
+        return budget == null || budget.getReason() == null || budget.isMaximum(bestSize());
+    }
+    
+    /**
+     * Get why the last solve was cut short before the clique was proven maximum.
+     * 
+     * @return  The reason the budget was spent, null if the clique is proven maximum.
+     */
+    public String getReason(){
+        return isProven() ? null : budget.getReason();
+    }
+    
+    /**
+     * Find a maximum clique on the calling thread.
+     * 
+     * @param incumbent     Best clique known so far, used as the initial bound. Returned as is if it is maximum.
+     * @return              A maximum clique.
+     */
+    public Clique solve(Clique incumbent){
+        return solve(incumbent, 1);
+    }
+    
+    /**
+     * Find a maximum clique using the given number of threads. The search tree is split into fork-join tasks that idle
+     * threads steal from busy ones, and the best clique is shared between all threads without locking, so every
+     * thread cuts its branches against the best clique any thread has found so far.
+     * 
+     * @param incumbent     Best clique known so far, used as the initial bound. Returned as is if it is maximum.
+     * @param threads       Number of threads to search with.
+     * @return              A maximum clique.
+     */
+    public Clique solve(Clique incumbent, int threads){
+        int[] initial = incumbent.getVertices();
+        int[] found = searchAll(initial, threads);
+        if(found == initial){
+            return incumbent;
+        }
+        return toClique(found);
+    }
+    
+    /**
+     * Find a maximum clique among those with more than the given number of vertices, without a clique of that size to
+     * start from. Cuts as if one had been found, so it takes far less time than solve when the size is close to that
+     * of a maximum clique.
+     * 
+     * @param size      Number of vertices to beat.
+     * @param threads   Number of threads to search with.
+     * @return          A maximum clique if it has more than size vertices, otherwise an empty clique.
+     */
+    public Clique solveLarger(int size, int threads){
+        int[] initial = new int[Math.max(0, size)];
+        int[] found = searchAll(initial, threads);
+        return toClique(found == initial ? new int[0] : found);
+    }
+    
+    /**
+     * Search all root subproblems, on the calling thread or a fork-join pool.
+     * 
+     * @param initial   Vertices of the clique to beat.
+     * @param threads   Number of threads to search with.
+     * @return          initial itself if no larger clique was found, otherwise the vertices of a maximum clique.
+     * @throws IllegalStateException    If the subproblems would not fit on the heap.
+     */
+    private int[] searchAll(int[] initial, int threads){
+        int numberOfVertices = graph.getNumberOfVertices();
+        best = new AtomicReference<int[]>(initial);
+        
+        //No subproblem has more vertices than the degeneracy once the graph is split
+        split = graph.isSparse() || !GraphReduction.fitsOnHeap(matrixBytes(numberOfVertices));
+        long needed = split ? Math.max(1, threads)*matrixBytes(cores.getDegeneracy()) : 0;
+        if(!GraphReduction.fitsOnHeap(needed)){
+            throw new IllegalStateException("The exact search needs "+(2*needed >> 20)+" MB of free heap for its "
+                    +"subproblems; give the JVM more with -Xmx");
+        }
+        
+        int roots = split ? numberOfVertices : 1;
+        if(threads <= 1){
+            new RootTask(0, roots, false).compute();
+        }
+        else{
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try{
+                pool.invoke(new RootTask(0, roots, true));
+            }
+            finally{
+                pool.shutdown();
+            }
+        }
+        
+        return best.get();
+    }
+    
+    /**
+     * Number of bytes of the adjacency matrix of a subproblem.
+     * 
+     * @param size  Number of vertices of the subproblem.
+     * @return      Size of its matrix.
+     */
+    private static long matrixBytes(int size){
+        return 8L*size*Graph.wordsFor(size);
+    }
+    
+    /**
+     * Make a clique of the given vertices.
+     * 
+     * @param vertices  Vertices of the clique.
+     * @return          The clique.
+     */
+    private Clique toClique(int[] vertices){
+        Clique result = new Clique(graph.getNumberOfVertices());
+        for(int idx=0; idx<vertices.length; ++idx){
+            result.add(vertices[idx]);
+        }
+        return result;
+    }
+    
+    /**
+     * Get the size of the largest clique found so far by any thread.
+     * 
+     * @return  Size of the best clique.
+     */
+    int bestSize(){
+        return best.get().length;
+    }
+    
+    /**
+     * Search one root subproblem. For dense graphs there is a single one, the whole graph less the vertices whose core
+     * number rules them out. For sparse graphs, and dense ones too large to copy, there is one for every vertex,
+     * holding its neighbours that come later in the degeneracy order, and they are numbered so that those in the
+     * densest cores are searched first.
+     * 
+     * @param index     Index of the subproblem.
+     * @param vertices  Buffer for the vertices of the subproblem.
+     * @param parallel  true to split the top of the search tree into tasks.
+     */
+    private void searchRoot(int index, int[] vertices, boolean parallel){
+        int bestSize = bestSize();
+        if(!split){
+            int count = 0;
+            for(int vertex=0; vertex<graph.getNumberOfVertices(); ++vertex){
+                if(cores.getCoreNumber(vertex) >= bestSize){
+                    vertices[count++] = vertex;
+                }
+            }
+            search(-1, vertices, count, parallel);
+            return;
+        }
+        int idx = graph.getNumberOfVertices()-1 - index;
+        int root = cores.getOrder()[idx];
+        if(cores.getCoreNumber(root) < bestSize){
+            return;
+        }
+        int count = graph.getNeighbours(root, vertices);
+        int kept = 0;
+        for(int nidx=0; nidx<count; ++nidx){
+            int neigh = vertices[nidx];
+            if(cores.getPosition(neigh) > idx && cores.getCoreNumber(neigh) >= bestSize){
+                vertices[kept++] = neigh;
+            }
+        }
+        if(kept >= bestSize){
+            search(root, vertices, kept, parallel);
+        }
+    }
+    
+    /**
+     * Search the subgraph induced by the given vertices for a clique larger than the best so far.
+     * 
+     * @param root      Vertex that every clique in the subproblem contains, or -1 if there is none.
+     * @param vertices  Vertices of the subgraph.
+     * @param count     Number of vertices.
+     * @param parallel  true to split the top of the search tree into tasks.
+     */
+    private void search(int root, int[] vertices, int count, boolean parallel){
+        Subproblem subproblem = new Subproblem(graph, root, vertices, count);
+        if(root != -1 && bestSize() == 0){
+            record(subproblem, vertices, 0);
+        }
+        new Search(subproblem, parallel && subproblem.size >= SPLIT_SIZE).expand(0, subproblem.all());
+    }
+    
+    /**
+     * Record a clique if it is larger than the best so far. Retries until either this clique or a larger one found by
+     * another thread is the best.
+     * 
+     * @param subproblem    Subproblem the clique was found in.
+     * @param clique        Vertices of the clique, numbered within the subproblem.
+     * @param size          Number of vertices in clique.
+     */
+    private void record(Subproblem subproblem, int[] clique, int size){
+        int base = subproblem.root == -1 ? 0 : 1;
+        int[] found = new int[base + size];
+        if(base == 1){
+            found[0] = subproblem.root;
+        }
+        for(int idx=0; idx<size; ++idx){
+            found[base + idx] = subproblem.vertices[clique[idx]];
+        }
+        while(true){
+            int[] current = best.get();
+            if(current.length >= found.length || best.compareAndSet(current, found)){
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Task that searches a range of root subproblems, splitting the range in halves while it is large.
+     */
+    class RootTask extends RecursiveAction {
+        
+        int lower;          //  First subproblem(inclusive)
+        int upper;          //  Last subproblem(exclusive)
+        boolean parallel;   //  If running in a fork-join pool
+        
+        /**
+         * Set up the task.
+         * 
+         * @param _lower        First subproblem(inclusive).
+         * @param _upper        Last subproblem(exclusive).
+         * @param _parallel     true if running in a fork-join pool.
+         */
+        RootTask(int _lower, int _upper, boolean _parallel){
+            lower = _lower;
+            upper = _upper;
+            parallel = _parallel;
+        }
+        
+        @Override
+        protected void compute(){
+            if(parallel && upper - lower > ROOTS_PER_TASK){
+                int middle = (lower + upper) >>> 1;
+                invokeAll(new RootTask(lower, middle, true), new RootTask(middle, upper, true));
+                return;
+            }
+            int[] vertices = new int[split ? graph.getMaxDegree() : graph.getNumberOfVertices()];
+            for(int index=lower; index<upper; ++index){
+                if(budget != null && budget.isSpent(bestSize())){
+                    return;
+                }
+                searchRoot(index, vertices, parallel);
+            }
+        }
+    }
+    
+    /**
+     * Task that searches one branch of the top of a search tree.
+     */
+    class BranchTask extends RecursiveAction {
+        
+        Subproblem subproblem;  //  Subproblem being searched
+        int[] clique;           //  Vertices of the clique the branch extends, numbered within the subproblem
+        long[] set;             //  Candidates of the branch
+        int bound;              //  Largest clique the branch can hold, from the colouring of its parent
+        
+        /**
+         * Set up the task.
+         * 
+         * @param _subproblem   Subproblem being searched.
+         * @param _clique       Vertices of the clique the branch extends.
+         * @param _set          Candidates of the branch.
+         * @param _bound        Largest clique the branch can hold.
+         */
+        BranchTask(Subproblem _subproblem, int[] _clique, long[] _set, int _bound){
+            subproblem = _subproblem;
+            clique = _clique;
+            set = _set;
+            bound = _bound;
+        }
+        
+        @Override
+        protected void compute(){
+            //Another thread may have found a clique that makes this branch pointless since it was forked
+            if(bound <= bestSize()){
+                return;
+            }
+            Search search = new Search(subproblem, true);
+            System.arraycopy(clique, 0, search.clique, 0, clique.length);
+            search.expand(clique.length, set);
+        }
+    }
+    
+    /**
+     * Subgraph induced by a set of vertices, renumbered 0 to size-1 in order of non-increasing degree within the
+     * subgraph and held as an adjacency matrix of packed bitset rows.
+     */
+    static class Subproblem {
+        
+        int root;               //  Vertex that every clique in the subproblem contains, or -1
+        int size;               //  Number of vertices
+        int words;              //  Number of longs in a bitset of the vertices
+        int[] vertices;         //  Graph vertex of every subproblem vertex(index)
+        long[][] adjacency;     //  Adjacency matrix
+        
+        /**
+         * Build the subgraph of the given graph induced by the given vertices. Only the matrix in the new numbering is
+         * built, straight from the graph, so a graph mapped from a file is not copied onto the heap any further.
+         * 
+         * @param graph         The graph.
+         * @param _root         Vertex that every clique in the subproblem contains, or -1 if there is none.
+         * @param _vertices     Vertices of the subgraph, in ascending order.
+         * @param count         Number of vertices.
+         */
+        Subproblem(Graph graph, int _root, int[] _vertices, int count){
+            root = _root;
+            size = count;
+            words = Graph.wordsFor(size);
+            
+            //Degree of every vertex within the subgraph
+            int[] kept = new int[size];
+            long[] keys = new long[size];
+            for(int i=0; i<size; ++i){
+                System.arraycopy(_vertices, 0, kept, 0, size);
+                int degree = graph.retainNeighbours(_vertices[i], kept, size);
+                keys[i] = ((long)(size - degree) << 32) | i;
+            }
+            Arrays.sort(keys);
+            
+            //Renumber by non-increasing degree
+            int[] renumbered = new int[size];
+            vertices = new int[size];
+            for(int i=0; i<size; ++i){
+                int given = (int)keys[i];
+                renumbered[given] = i;
+                vertices[i] = _vertices[given];
+            }
+            
+            //The neighbours a vertex keeps come out in ascending order, so each is found in the given vertices by a
+            //binary search starting past the previous one
+            adjacency = new long[size][words];
+            for(int i=0; i<size; ++i){
+                System.arraycopy(_vertices, 0, kept, 0, size);
+                int degree = graph.retainNeighbours(vertices[i], kept, size);
+                int from = 0;
+                for(int nidx=0; nidx<degree; ++nidx){
+                    int given = Arrays.binarySearch(_vertices, from, size, kept[nidx]);
+                    from = given+1;
+                    int j = renumbered[given];
+                    if(j != i){
+                        adjacency[i][j >>> 6] |= 1L << j;
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Bitset of all vertices of the subproblem.
+         * 
+         * @return  A new bitset with every vertex set.
+         */
+        long[] all(){
+            long[] set = new long[words];
+            Arrays.fill(set, -1L);
+            if((size & 63) != 0){
+                set[words-1] = (1L << size) - 1;
+            }
+            return set;
+        }
+    }
+    
+    /**
+     * Search of one subproblem. Holds the scratch space of every level of the search tree so that nodes do not
+     * allocate.
+     */
+    class Search {
+        
+        Subproblem subproblem;      //  Subproblem being searched
+        boolean parallel;           //  If the top levels are split into tasks
+        int base;                   //  Number of clique vertices outside the subproblem(the root)
+        int[] clique;               //  Vertices of the current clique, numbered within the subproblem
+        long[][] candidates;        //  Candidate set at every level
+        long[][] uncoloured;        //  Scratch space for colouring at every level
+        long[][] colourable;        //  Scratch space for colouring at every level
+        int[][] order;              //  Coloured candidates at every level, in non-decreasing colour order
+        int[][] colour;             //  Colour of every coloured candidate at every level
+        int nodes;                  //  Number of nodes expanded, to space out checks of the budget
+        
+        /**
+         * Set up the search of the given subproblem.
+         * 
+         * @param _subproblem   Subproblem to search.
+         * @param _parallel     true to split the top levels of the search tree into tasks.
+         */
+        Search(Subproblem _subproblem, boolean _parallel){
+            subproblem = _subproblem;
+            parallel = _parallel;
+            base = subproblem.root == -1 ? 0 : 1;
+            int levels = subproblem.size + 2;
+            clique = new int[levels];
+            candidates = new long[levels][];
+            uncoloured = new long[levels][];
+            colourable = new long[levels][];
+            order = new int[levels][];
+            colour = new int[levels][];
+        }
+        
+        /**
+         * Allocate the scratch space of a level the first time it is reached.
+         * 
+         * @param depth     The level.
+         */
+        void ensureLevel(int depth){
+            if(order[depth] == null){
+                candidates[depth] = new long[subproblem.words];
+                uncoloured[depth] = new long[subproblem.words];
+                colourable[depth] = new long[subproblem.words];
+                order[depth] = new int[subproblem.size];
+                colour[depth] = new int[subproblem.size];
+            }
+        }
+        
+        /**
+         * Extend the current clique with every candidate in turn, cutting branches that cannot beat the best clique.
+         * 
+         * @param depth     Number of subproblem vertices in the current clique.
+         * @param set       Candidates that are adjacent to every vertex in the current clique. Modified.
+         */
+        void expand(int depth, long[] set){
+            //Give up once the budget is spent, looking at the clock only every CHECK_NODES nodes
+            if(budget != null){
+                if((++nodes & (CHECK_NODES-1)) == 0){
+                    budget.isSpent(bestSize());
+                }
+                if(budget.getReason() != null){
+                    return;
+                }
+            }
+            ensureLevel(depth);
+            ensureLevel(depth+1);
+            int[] levelOrder = order[depth];
+            int[] levelColour = colour[depth];
+            int count = colourSort(depth, set);
+            long[] next = candidates[depth+1];
+            
+            if(parallel && depth < SPLIT_DEPTH){
+                fork(depth, set, count);
+                return;
+            }
+            for(int idx=count-1; idx>=0; --idx){
+                if(base + depth + levelColour[idx] <= bestSize()){
+                    return;
+                }
+                int vertex = levelOrder[idx];
+                clique[depth] = vertex;
+                if(intersect(set, subproblem.adjacency[vertex], next)){
+                    expand(depth+1, next);
+                }
+                else if(base + depth + 1 > bestSize()){
+                    record(subproblem, clique, depth+1);
+                }
+                set[vertex >>> 6] &= ~(1L << vertex);
+            }
+        }
+        
+        /**
+         * Branch on the coloured candidates of a level as expand does, but hand every branch that survives the bound to
+         * its own task with its own copy of the clique and candidates.
+         * 
+         * @param depth     Number of subproblem vertices in the current clique.
+         * @param set       Candidates that are adjacent to every vertex in the current clique. Modified.
+         * @param count     Number of coloured candidates at this level.
+         */
+        void fork(int depth, long[] set, int count){
+            int[] levelOrder = order[depth];
+            int[] levelColour = colour[depth];
+            ArrayList<BranchTask> tasks = new ArrayList<BranchTask>();
+            for(int idx=count-1; idx>=0; --idx){
+                int bound = base + depth + levelColour[idx];
+                if(bound <= bestSize()){
+                    break;
+                }
+                int vertex = levelOrder[idx];
+                clique[depth] = vertex;
+                long[] branch = new long[subproblem.words];
+                if(intersect(set, subproblem.adjacency[vertex], branch)){
+                    tasks.add(new BranchTask(subproblem, Arrays.copyOf(clique, depth+1), branch, bound));
+                }
+                else if(base + depth + 1 > bestSize()){
+                    record(subproblem, clique, depth+1);
+                }
+                set[vertex >>> 6] &= ~(1L << vertex);
+            }
+            ForkJoinTask.invokeAll(tasks);
+        }
+        
+        /**
+         * Greedily colour the candidates, one colour class at a time, taking the lowest numbered uncoloured vertex that
+         * is not adjacent to any vertex of the class. Only candidates whose colour is high enough to possibly beat the
+         * best clique are returned, as the others would be cut anyway.
+         * 
+         * @param depth     Level being coloured.
+         * @param set       Candidates.
+         * @return          Number of candidates in order[depth] and colour[depth].
+         */
+        int colourSort(int depth, long[] set){
+            long[] uncolouredSet = uncoloured[depth];
+            long[] colourableSet = colourable[depth];
+            int[] levelOrder = order[depth];
+            int[] levelColour = colour[depth];
+            int words = subproblem.words;
+            int minColour = bestSize() - base - depth + 1;
+            System.arraycopy(set, 0, uncolouredSet, 0, words);
+            
+            int remaining = KERNEL.count(uncolouredSet, words);
+            int count = 0;
+            int k = 0;
+            while(remaining > 0){
+                ++k;
+                System.arraycopy(uncolouredSet, 0, colourableSet, 0, words);
+                for(int w=0; w<words; ++w){
+                    while(colourableSet[w] != 0){
+                        int vertex = (w << 6) + Long.numberOfTrailingZeros(colourableSet[w]);
+                        long bit = 1L << vertex;
+                        colourableSet[w] &= ~bit;
+                        uncolouredSet[w] &= ~bit;
+                        --remaining;
+                        long[] row = subproblem.adjacency[vertex];
+                        KERNEL.andNot(colourableSet, row, colourableSet, w, words);
+                        if(k >= minColour){
+                            levelOrder[count] = vertex;
+                            levelColour[count] = k;
+                            ++count;
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+    }
+    
+    /**
+     * Intersect two bitsets.
+     * 
+     * @param a         First bitset.
+     * @param b         Second bitset.
+     * @param result    Bitset to store a AND b in.
+     * @return          true if the intersection is not empty.
+     */
+    static boolean intersect(long[] a, long[] b, long[] result){
+        return KERNEL.and(a, b, result, result.length);
+    }
+}
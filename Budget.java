@@ -0,0 +1,136 @@
+/**
+ * Decides when a search can stop before it has used all of its random restarts. The search stops once a deadline on
+ * the wall clock has passed, once a clique of a target size has been found, or once the best clique reaches an upper
+ * bound on the size of any clique, in which case it is known to be maximum. Every thread checks the budget between
+ * restarts and skips its remaining ones once the budget is spent, so the search winds down within one restart per
+ * thread. The deadline is a wall clock time rather than a duration so that it means the same to every process of a
+ * cluster job.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class Budget {
+    
+    /**
+     * Stop reasons, as returned by getReason.
+     */
+    static final String TIME = "time budget used up";
+    static final String TARGET = "target clique size reached";
+    static final String BOUND = "clique matches the upper bound";
+    
+    private long deadline;          //  Wall clock time to stop at in milliseconds, Long.MAX_VALUE for none
+    private int target;             //  Clique size to stop at, Integer.MAX_VALUE for none
+    private int upperBound;         //  Size no clique can exceed, Integer.MAX_VALUE if not known
+    private volatile String reason; //  Why the budget was spent, null while it is not
+    
+    /**
+     * Set up a budget.
+     * 
+     * @param _deadline     Wall clock time to stop at, as returned by System.currentTimeMillis, or Long.MAX_VALUE.
+     * @param _target       Clique size to stop at, or Integer.MAX_VALUE.
+     */
+    public Budget(long _deadline, int _target){
+        deadline = _deadline;
+        target = _target;
+        upperBound = Integer.MAX_VALUE;
+    }
+    
+    /**
+     * Set up a budget from the time and target options.
+     * 
+     * @param options   Program options.
+     * @param start     Wall clock time the time budget counts from.
+     * @return          The budget.
+     */
+    public static Budget fromOptions(Options options, long start){
+        long time = options.getLong("time", -1);
+        return new Budget(time < 0 ? Long.MAX_VALUE : start + 1000*time, options.getInt("target", Integer.MAX_VALUE));
+    }
+    
+    /**
+     * Get a budget with the same deadline and upper bound but no target, for an exact search: stopping it at the
+     * target clique size would only leave the clique unproven.
+     * 
+     * @return  The budget, not yet spent.
+     */
+    public Budget withoutTarget(){
+        Budget budget = new Budget(deadline, Integer.MAX_VALUE);
+        budget.upperBound = upperBound;
+        return budget;
+    }
+    
+    /**
+     * Set the upper bound on the size of any clique in the graph.
+     * 
+     * @param _upperBound   The bound.
+     */
+    public void setUpperBound(int _upperBound){
+        upperBound = _upperBound;
+    }
+    
+    /**
+     * Get the upper bound on the size of any clique in the graph.
+     * 
+     * @return  The bound, Integer.MAX_VALUE if not known.
+     */
+    public int getUpperBound(){
+        return upperBound;
+    }
+    
+    /**
+     * Get the deadline.
+     * 
+     * @return  Wall clock time to stop at in milliseconds, Long.MAX_VALUE for none.
+     */
+    public long getDeadline(){
+        return deadline;
+    }
+    
+    /**
+     * Get the target clique size.
+     * 
+     * @return  Clique size to stop at, Integer.MAX_VALUE for none.
+     */
+    public int getTarget(){
+        return target;
+    }
+    
+    /**
+     * Check whether the budget is spent. Once it is, it stays spent for every thread.
+     * 
+     * @param bestSize  Size of the best clique the caller knows of.
+     * @return          true if the search should stop.
+     */
+    public boolean isSpent(int bestSize){
+        if(reason == null){
+            if(bestSize >= upperBound){
+                reason = BOUND;
+            }
+            else if(bestSize >= target){
+                reason = TARGET;
+            }
+            else if(deadline != Long.MAX_VALUE && System.currentTimeMillis() >= deadline){
+                reason = TIME;
+            }
+        }
+        return reason != null;
+    }
+    
+    /**
+     * Check whether a clique of the given size is known to be maximum.
+     * 
+     * @param size  Size of the clique.
+     * @return      true if it matches the upper bound.
+     */
+    public boolean isMaximum(int size){
+        return size >= upperBound;
+    }
+    
+    /**
+     * Get why the budget was spent.
+     * 
+     * @return  One of TIME, TARGET and BOUND, or null if it is not spent.
+     */
+    public String getReason(){
+        return reason;
+    }
+}
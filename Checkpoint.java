@@ -0,0 +1,414 @@
+import edu.rit.util.Random;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkpoint of a run of random restarts, so that a run that dies can be resumed without repeating the restarts it has
+ * done. For every rank(thread) it records the ranges of iterations completed, how many numbers have been drawn from the
+ * pseudorandom number generator of the rank and the best clique the rank has found. The threads doing the restarts
+ * only record their progress in memory; a background thread writes the checkpoint to its file every INTERVAL seconds,
+ * first to a temporary file that then replaces the previous checkpoint, so the file always holds a complete one.
+ * 
+ * A resumed run skips the iterations completed before and restarts the generator of every rank where it left off,
+ * by skipping the numbers already drawn. With the same number of threads and the same schedule every rank gets the
+ * iterations it had before, so the resumed run finds the same cliques the run would have found had it not died.
+ * 
+ * The file is written with DataOutputStream: magic number, version, seed, number of iterations and number of ranks,
+ * then for every rank the numbers drawn, the size and vertices of its best clique, and the number of ranges followed
+ * by the first and last iteration of each.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class Checkpoint {
+    
+    /**
+     * First four bytes of every checkpoint file, "MCCP".
+     */
+    static final int MAGIC = 0x4D434350;
+    
+    /**
+     * Version of the format written by this class.
+     */
+    static final int VERSION = 1;
+    
+    /**
+     * Number of seconds between checkpoints.
+     */
+    static final long INTERVAL = 60;
+    
+    private File file;                          //  File to write to, null if checkpoints are off
+    private long seed;                          //  Seed of the run
+    private int numberOfIterations;             //  Number of iterations of the run
+    private Rank[] ranks;                       //  Progress of every rank
+    private int[] done = new int[0];            //  Iterations completed before resuming, as sorted merged ranges
+    private ScheduledExecutorService writer;    //  Thread writing the checkpoints
+    
+    /**
+     * Progress of one rank.
+     */
+    static class Rank {
+        
+        long draws;                 //  Numbers drawn from the generator of the rank
+        int[] clique = new int[0];  //  Vertices of the best clique found by the rank
+        int[] ranges = new int[8];  //  First and last iteration of every range of completed iterations
+        int numberOfRanges;         //  Number of ranges in use
+        
+        /**
+         * Record a completed iteration.
+         * 
+         * @param iter      The iteration.
+         * @param _draws    Numbers drawn from the generator of the rank so far.
+         */
+        synchronized void completed(int iter, long _draws){
+            if(numberOfRanges > 0 && ranges[2*numberOfRanges-1] == iter-1){
+                ranges[2*numberOfRanges-1] = iter;
+            }
+            else{
+                if(2*numberOfRanges == ranges.length){
+                    ranges = Arrays.copyOf(ranges, 2*ranges.length);
+                }
+                ranges[2*numberOfRanges] = iter;
+                ranges[2*numberOfRanges+1] = iter;
+                ++numberOfRanges;
+            }
+            draws = _draws;
+        }
+        
+        /**
+         * Record a better clique.
+         * 
+         * @param _clique   The clique.
+         */
+        synchronized void improved(Clique _clique){
+            clique = _clique.getVertices();
+        }
+        
+        /**
+         * Write the progress of the rank.
+         * 
+         * @param out           Stream to write to.
+         * @throws IOException  If it cannot be written.
+         */
+        synchronized void writeOut(DataOutputStream out) throws IOException{
+            out.writeLong(draws);
+            out.writeInt(clique.length);
+            for(int vertex : clique){
+                out.writeInt(vertex);
+            }
+            out.writeInt(numberOfRanges);
+            for(int idx=0; idx<2*numberOfRanges; ++idx){
+                out.writeInt(ranges[idx]);
+            }
+        }
+        
+        /**
+         * Read the progress of the rank.
+         * 
+         * @param in            Stream to read from.
+         * @throws IOException  If it cannot be read.
+         */
+        synchronized void readIn(DataInputStream in) throws IOException{
+            draws = in.readLong();
+            clique = new int[in.readInt()];
+            for(int idx=0; idx<clique.length; ++idx){
+                clique[idx] = in.readInt();
+            }
+            numberOfRanges = in.readInt();
+            ranges = new int[Math.max(8, 2*numberOfRanges)];
+            for(int idx=0; idx<2*numberOfRanges; ++idx){
+                ranges[idx] = in.readInt();
+            }
+        }
+    }
+    
+    /**
+     * Pseudorandom number generator that counts the numbers drawn from it, so that a resumed run can skip them.
+     */
+    static class Stream extends Random {
+        
+        long draws;     //  Numbers drawn so far
+        
+        /**
+         * Set up the generator.
+         * 
+         * @param _seed     Seed.
+         * @param _draws    Numbers to skip.
+         */
+        Stream(long _seed, long _draws){
+            super(_seed);
+            skip(_draws);
+            draws = _draws;
+        }
+        
+        @Override
+        public int nextInt(int n){
+            ++draws;
+            return super.nextInt(n);
+        }
+        
+        @Override
+        public boolean nextBoolean(){
+            ++draws;
+            return super.nextBoolean();
+        }
+    }
+    
+    /**
+     * Set up checkpoints of a new run, or of none.
+     * 
+     * @param _file                 File to write checkpoints to, or null to not write any.
+     * @param _seed                 Seed of the run.
+     * @param _numberOfIterations   Number of iterations of the run.
+     * @param _ranks                Number of ranks.
+     */
+    public Checkpoint(File _file, long _seed, int _numberOfIterations, int _ranks){
+        file = _file;
+        seed = _seed;
+        numberOfIterations = _numberOfIterations;
+        ranks = new Rank[_ranks];
+        for(int rank=0; rank<_ranks; ++rank){
+            ranks[rank] = new Rank();
+        }
+    }
+    
+    /**
+     * Set up checkpoints from the checkpoint and resume options.
+     * 
+     * @param _file                 Value of the checkpoint option, null or empty if not given.
+     * @param resume                Value of the resume option.
+     * @param _seed                 Seed of the run.
+     * @param _numberOfIterations   Number of iterations of the run.
+     * @param _ranks                Number of ranks.
+     * @return                      The checkpoints, resumed from the file if asked to.
+     * @throws IOException          If the checkpoint to resume from cannot be read or is of a different run.
+     */
+    public static Checkpoint open(String _file, boolean resume, long _seed, int _numberOfIterations, int _ranks)
+            throws IOException{
+        if(_file == null || _file.isEmpty()){
+            if(resume){
+                throw new IllegalArgumentException("resume=true needs checkpoint=<file>");
+            }
+            return new Checkpoint(null, _seed, _numberOfIterations, _ranks);
+        }
+        Checkpoint checkpoint = new Checkpoint(new File(_file), _seed, _numberOfIterations, _ranks);
+        if(resume){
+            checkpoint.load();
+        }
+        return checkpoint;
+    }
+    
+    /**
+     * Read the checkpoint file back.
+     * 
+     * @throws IOException  If it cannot be read or is not a checkpoint of this run.
+     */
+    private void load() throws IOException{
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try{
+            if(in.readInt() != MAGIC || in.readInt() != VERSION){
+                throw new IOException(file+" is not a checkpoint file");
+            }
+            if(in.readLong() != seed || in.readInt() != numberOfIterations){
+                throw new IOException(file+" is a checkpoint of a run with a different seed or number of iterations");
+            }
+            int saved = in.readInt();
+            if(saved > ranks.length){
+                ranks = Arrays.copyOf(ranks, saved);
+            }
+            for(int rank=0; rank<saved; ++rank){
+                if(ranks[rank] == null){
+                    ranks[rank] = new Rank();
+                }
+                ranks[rank].readIn(in);
+            }
+        }
+        finally{
+            in.close();
+        }
+        
+        //Merge the ranges of all ranks, to look iterations up by binary search
+        int total = 0;
+        for(Rank rank : ranks){
+            total += rank.numberOfRanges;
+        }
+        long[] all = new long[total];
+        int count = 0;
+        for(Rank rank : ranks){
+            for(int idx=0; idx<rank.numberOfRanges; ++idx){
+                all[count++] = ((long)rank.ranges[2*idx] << 32) | (rank.ranges[2*idx+1] & 0xFFFFFFFFL);
+            }
+        }
+        Arrays.sort(all);
+        done = new int[2*total];
+        count = 0;
+        for(long range : all){
+            int first = (int)(range >>> 32);
+            int last = (int)range;
+            if(count > 0 && first <= done[count-1] + 1){
+                done[count-1] = Math.max(done[count-1], last);
+            }
+            else{
+                done[count++] = first;
+                done[count++] = last;
+            }
+        }
+        done = Arrays.copyOf(done, count);
+    }
+    
+    /**
+     * Start writing checkpoints in the background. Does nothing if checkpoints are off.
+     */
+    public void start(){
+        if(file == null){
+            return;
+        }
+        writer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory(){
+            @Override
+            public Thread newThread(Runnable runnable){
+                Thread thread = new Thread(runnable, "checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        writer.scheduleWithFixedDelay(new Runnable(){
+            @Override
+            public void run(){
+                try{
+                    write();
+                }
+                catch(IOException e){
+                    System.err.println("Cannot write checkpoint: "+e.getMessage());
+                }
+            }
+        }, INTERVAL, INTERVAL, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Stop writing checkpoints in the background and write a last one. Does nothing if checkpoints are off.
+     * 
+     * @throws IOException  If the checkpoint cannot be written.
+     */
+    public void finish() throws IOException{
+        if(file == null){
+            return;
+        }
+        writer.shutdown();
+        try{
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        write();
+    }
+    
+    /**
+     * Write a checkpoint to a temporary file, then move it over the previous one.
+     * 
+     * @throws IOException  If it cannot be written.
+     */
+    synchronized void write() throws IOException{
+        File temporary = new File(file.getPath()+".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+        try{
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(seed);
+            out.writeInt(numberOfIterations);
+            out.writeInt(ranks.length);
+            for(Rank rank : ranks){
+                rank.writeOut(out);
+            }
+        }
+        finally{
+            out.close();
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Check whether an iteration was completed before the run was resumed.
+     * 
+     * @param iter  The iteration.
+     * @return      true if it need not be done again.
+     */
+    public boolean isCompleted(int iter){
+        int lower = 0;
+        int upper = done.length/2;
+        while(lower < upper){
+            int middle = (lower + upper) >>> 1;
+            if(iter < done[2*middle]){
+                upper = middle;
+            }
+            else if(iter > done[2*middle+1]){
+                lower = middle+1;
+            }
+            else{
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Create the pseudorandom number generator of a rank, continuing where the rank left off if the run was resumed.
+     * 
+     * @param rank      The rank.
+     * @param _seed     Seed of the generator of the rank.
+     * @return          The generator.
+     */
+    public Random random(int rank, long _seed){
+        return new Stream(_seed, ranks[rank].draws);
+    }
+    
+    /**
+     * Record that a rank has completed an iteration.
+     * 
+     * @param rank      The rank.
+     * @param iter      The iteration.
+     * @param prng      The generator of the rank, as returned by random.
+     */
+    public void completed(int rank, int iter, Random prng){
+        ranks[rank].completed(iter, ((Stream)prng).draws);
+    }
+    
+    /**
+     * Record that a rank has found a better clique.
+     * 
+     * @param rank      The rank.
+     * @param clique    The clique, numbered as in the original graph.
+     */
+    public void improved(int rank, Clique clique){
+        ranks[rank].improved(clique);
+    }
+    
+    /**
+     * Fold the best clique found by any rank before the run was resumed into the given clique.
+     * 
+     * @param best  Best clique so far.
+     */
+    public void restore(Clique best){
+        for(Rank rank : ranks){
+            if(rank.clique.length > best.getSize()){
+                best.reset();
+                for(int vertex : rank.clique){
+                    best.add(vertex);
+                }
+            }
+        }
+    }
+}
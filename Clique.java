@@ -3,54 +3,83 @@ import edu.rit.io.OutStream;
 import edu.rit.pj2.Tuple;
 import edu.rit.pj2.Vbl;
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
- * Holds the vertices of the clique and the size.
+ * Holds the vertices of the clique and the size. The vertices are kept as a list of the members in the order they were
+ * added, so that resetting, copying and sending a clique costs time in its size rather than in the number of vertices
+ * of the graph. Membership is tested against an array of generation stamps, one per vertex of the graph: a vertex is a
+ * member if its stamp equals the current generation, so a reset only has to start a new generation.
  * 
  * @author Yogesh Jagadeesan and Dler Ahmad
  */
 public class Clique extends Tuple implements Vbl, Comparable<Clique> {
 
-    private int[] vertices;
-    private int size;
+    private int[] members;      //  Vertices of the clique, the first size entries are used
+    private int size;           //  Number of vertices in the clique
+    private int[] stamp;        //  Generation in which every vertex of the graph was added, null if not tracked
+    private int generation;     //  Current generation, vertices stamped with it are members
     
     /**
-     * Default constructor.
+     * Default constructor. Membership of a clique made this way, or read from tuple space, is tested by scanning its
+     * members.
      */
-    public Clique(){      
+    public Clique(){
+        members = new int[0];
     }
     
     /**
      * Given the number of vertices, initialize the clique object.
      * 
-     * @param _numberOfVertices     Number of vertices of the clique.
+     * @param _numberOfVertices     Number of vertices of the graph.
      */
     public Clique(int _numberOfVertices){
-        vertices = new int[_numberOfVertices];
+        members = new int[16];
+        stamp = new int[_numberOfVertices];
+        generation = 1;
     }
     
     /**
      * Create clique object. Called from clone.
      * 
-     * @param _vertices     Vertices to clone.
-     * @param _size         Size to clone.
+     * @param _clique   Clique to clone.
      */
-    public Clique(int[] _vertices, int _size){
-        vertices = new int[_vertices.length];
-        System.arraycopy(_vertices, 0, vertices, 0, vertices.length);
-        size = _size;
+    private Clique(Clique _clique){
+        members = Arrays.copyOf(_clique.members, Math.max(16, _clique.size));
+        if(_clique.stamp != null){
+            stamp = new int[_clique.stamp.length];
+            generation = 1;
+        }
+        for(int idx=0; idx<_clique.size; ++idx){
+            mark(members[idx]);
+        }
+        size = _clique.size;
     }
-
+    
     /**
      * Add a vertex to the clique.
      * 
      * @param _vertex   Vertex to be added to clique.
      */
     public void add(int _vertex){
-        vertices[_vertex] = 1;
-        ++size;
+        if(size == members.length){
+            members = Arrays.copyOf(members, Math.max(16, 2*size));
+        }
+        members[size++] = _vertex;
+        mark(_vertex);
     }
-   
+    
+    /**
+     * Stamp a vertex as a member of the current generation.
+     * 
+     * @param _vertex   The vertex.
+     */
+    private void mark(int _vertex){
+        if(stamp != null){
+            stamp[_vertex] = generation;
+        }
+    }
+    
     /**
      * Get the size of the clique.
      * 
@@ -60,22 +89,35 @@ public class Clique extends Tuple implements Vbl, Comparable<Clique> {
         return size;
     }
     
+    /**
+     * Get a vertex of the clique.
+     * 
+     * @param _index    Index of the vertex, from 0 to getSize()-1, in the order the vertices were added.
+     * @return          The vertex.
+     */
+    public int getVertex(int _index){
+        return members[_index];
+    }
+    
     /**
      * Get the vertices of the clique.
      * 
-     * @return  Array containing the vertices of the clique.
+     * @return  New array containing the vertices of the clique in ascending order.
      */
     public int[] getVertices(){
+        int[] vertices = Arrays.copyOf(members, size);
+        Arrays.sort(vertices);
         return vertices;
     }
     
     /**
-     * Reset the current clique object.
+     * Reset the current clique object. Takes constant time, apart from clearing the stamps once every 2^31 resets.
      */
     public void reset(){
         size=0;
-        for(int idx=0; idx<vertices.length; ++idx){
-            vertices[idx] = 0;
+        if(stamp != null && ++generation == Integer.MAX_VALUE){
+            Arrays.fill(stamp, 0);
+            generation = 1;
         }
     }
     
@@ -86,8 +128,13 @@ public class Clique extends Tuple implements Vbl, Comparable<Clique> {
      * @return          True if the vertex is indeed in the clique, false otherwise.
      */
     public boolean isVertexInClique(int _vertex){
-        if(vertices[_vertex] == 1){
-            return true;
+        if(stamp != null){
+            return stamp[_vertex] == generation;
+        }
+        for(int idx=0; idx<size; ++idx){
+            if(members[idx] == _vertex){
+                return true;
+            }
         }
         return false;
     }
@@ -100,10 +147,17 @@ public class Clique extends Tuple implements Vbl, Comparable<Clique> {
     @Override
     public void set(Vbl vbl) {
         Clique candidate = (Clique) vbl;
-        this.size = candidate.getSize();
-        System.arraycopy(candidate.getVertices(), 0, vertices, 0, vertices.length);
+        reset();
+        if(members.length < candidate.size){
+            members = new int[candidate.size];
+        }
+        for(int idx=0; idx<candidate.size; ++idx){
+            members[idx] = candidate.members[idx];
+            mark(members[idx]);
+        }
+        size = candidate.size;
     }
-
+    
     /**
      * Compare current clique with the given one and keep the larger clique.
      * 
@@ -123,9 +177,9 @@ public class Clique extends Tuple implements Vbl, Comparable<Clique> {
      */
     @Override
     public Vbl clone(){
-        return new Clique(vertices, size);
+        return new Clique(this);
     }
-
+    
     /**
      * Compare current clique size with the given clique.
      * 
@@ -142,15 +196,17 @@ public class Clique extends Tuple implements Vbl, Comparable<Clique> {
     }
     
     /**
-     * Write current clique to the tuple space.
+     * Write current clique to the tuple space. Only the members are sent.
      * 
      * @param out           Outstream to write the clique to.
      * @throws IOException  not used.
      */
     @Override
     public void writeOut(OutStream out)throws IOException{
-       out.writeIntArray(vertices);
        out.writeInt(size);
+       for(int idx=0; idx<size; ++idx){
+           out.writeInt(members[idx]);
+       }
     }
     
     /**
@@ -161,7 +217,11 @@ public class Clique extends Tuple implements Vbl, Comparable<Clique> {
      */
     @Override
     public void readIn(InStream in) throws IOException{
-        vertices = in.readIntArray();
         size = in.readInt();
+        members = new int[size];
+        for(int idx=0; idx<size; ++idx){
+            members[idx] = in.readInt();
+        }
+        stamp = null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,427 @@
+import edu.rit.util.Random;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Multicore version of the random restarts of MaxCliqueSmp that runs on a ForkJoinPool of its own instead of a pj2
+ * team, so that any Java program can call it. Set it up on a graph, adjust the options the programs have, and call
+ * solve, which returns the largest clique found. Another thread may call cancel to make solve return early with the
+ * best clique found so far. The same engine can solve any number of times; every solve starts its budget afresh.
+ * 
+ * The iterations are not dealt out in fixed shares as pj2 does. A task runs its iterations one at a time and, whenever
+ * its thread has few tasks queued up for idle threads to steal, forks off the upper half of the iterations it has
+ * left. Threads whose restarts are long thus give away work to those whose restarts are short, and the chunks stay
+ * large while every thread is busy. Each thread restarts with its own GreedyRestart and pseudorandom number generator,
+ * seeded as in MaxCliqueSmp, but which thread does which iteration depends on the stealing, so with more than one
+ * thread the clique found may differ between runs with the same seed. With one thread it is the clique MaxCliqueSeq
+ * finds.
+ * 
+ * Usage: java CliqueEngine <filename> <seed> <numberOfIterations> [threads=<n>] [exact=true] [verify=true] [mapped=true] [reduce=false] [time=<seconds>] [target=<size>] [improve=<moves>] [starts=adaptive] [progress=<seconds>] [metrics=<file>]
+ * threads=<n>          =   number of threads to restart on, all cores by default(optional)
+ * 
+ * The other arguments are those of MaxCliqueSmp. The program needs the pj2 library on the class path but not its job
+ * launcher.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class CliqueEngine {
+    
+    /**
+     * Options the program takes after its positional arguments.
+     */
+    static final String[] OPTIONS = {"threads", "exact", "verify", "mapped", "reduce", "time", "target", "improve",
+            "starts", "progress", "metrics"};
+    
+    static final int SURPLUS = 2;   //  Tasks a thread keeps queued up for others to steal before it forks more
+    
+    private Graph graph;                //  Graph to search
+    private int threads;                //  Number of threads to restart on
+    private long seed;                  //  Seed of the pseudorandom number generators
+    private int iterations;             //  Number of random restarts
+    private boolean reduce;             //  Shrink the graph whenever a larger clique is found
+    private int improve;                //  Local search moves after every restart
+    private String starts;              //  Policy picking the start vertices
+    private Budget budget;              //  When to stop before all restarts are done, copied afresh by every solve
+    private int progress;               //  Seconds between progress lines, 0 for none
+    private AtomicBoolean cancelled;    //  Whether the running or next solve should stop
+    private boolean wasCancelled;       //  Whether the last solve was cancelled
+    private String reason;              //  Why the last solve stopped early, null if it did not
+    private Metrics metrics;            //  Counters of the last solve
+    
+    /**
+     * Set up a search on the given graph, with as many threads as there are cores, seed 0, 1000 restarts and the
+     * default options of the programs.
+     * 
+     * @param _graph    Graph to search.
+     */
+    public CliqueEngine(Graph _graph){
+        graph = _graph;
+        threads = Runtime.getRuntime().availableProcessors();
+        seed = 0;
+        iterations = 1000;
+        reduce = true;
+        improve = 0;
+        starts = StartScheduler.RANDOM;
+        budget = new Budget(Long.MAX_VALUE, Integer.MAX_VALUE);
+        cancelled = new AtomicBoolean();
+    }
+    
+    /**
+     * Set the number of threads to restart on.
+     * 
+     * @param _threads  Number of threads, at least 1.
+     */
+    public void setThreads(int _threads){
+        if(_threads < 1){
+            throw new IllegalArgumentException("Invalid number of threads "+_threads);
+        }
+        threads = _threads;
+    }
+    
+    /**
+     * Set the seed of the pseudorandom number generators.
+     * 
+     * @param _seed     Seed.
+     */
+    public void setSeed(long _seed){
+        seed = _seed;
+    }
+    
+    /**
+     * Set the number of random restarts.
+     * 
+     * @param _iterations   Number of restarts.
+     */
+    public void setIterations(int _iterations){
+        if(_iterations < 0){
+            throw new IllegalArgumentException("Invalid number of iterations "+_iterations);
+        }
+        iterations = _iterations;
+    }
+    
+    /**
+     * Set whether to shrink the graph to the cores that can hold a larger clique whenever one is found.
+     * 
+     * @param _reduce   true to shrink it, as the programs do by default.
+     */
+    public void setReduce(boolean _reduce){
+        reduce = _reduce;
+    }
+    
+    /**
+     * Set the number of local search moves to improve every restart's clique with.
+     * 
+     * @param _improve  Number of moves, 0 for none.
+     */
+    public void setImprove(int _improve){
+        improve = _improve;
+    }
+    
+    /**
+     * Set the policy picking the start vertices.
+     * 
+     * @param _starts   A policy StartScheduler.create knows.
+     */
+    public void setStarts(String _starts){
+        starts = _starts;
+    }
+    
+    /**
+     * Set when to stop before all restarts are done. Only its deadline and target are used: every solve checks a new
+     * budget of its own with them, so that a budget spent by one solve does not stop the next.
+     * 
+     * @param _budget   The budget.
+     */
+    public void setBudget(Budget _budget){
+        budget = _budget;
+    }
+    
+    /**
+     * Set how often to print the restart counts to the standard error while solving.
+     * 
+     * @param _progress     Seconds between lines, 0 for none.
+     */
+    public void setProgress(int _progress){
+        progress = _progress;
+    }
+    
+    /**
+     * Make the running solve stop, within one restart per thread, and return the best clique found so far. If no solve
+     * is running, the next one returns at once.
+     */
+    public void cancel(){
+        cancelled.set(true);
+    }
+    
+    /**
+     * Check whether the last solve was cancelled.
+     * 
+     * @return  true if cancel was called while it ran, or before it started.
+     */
+    public boolean isCancelled(){
+        return wasCancelled;
+    }
+    
+    /**
+     * Get why the last solve stopped before all restarts were done, other than by cancel.
+     * 
+     * @return  One of the stop reasons of Budget, or null if it did all its restarts.
+     */
+    public String getReason(){
+        return reason;
+    }
+    
+    /**
+     * Get the restart counts of the last solve.
+     * 
+     * @return  Sum of the counts of all threads, null before the first solve.
+     */
+    public Metrics getMetrics(){
+        return metrics;
+    }
+    
+    /**
+     * Do the random restarts on all threads.
+     * 
+     * @return  The largest clique found, numbered as in the graph.
+     */
+    public Clique solve(){
+        final Search search = new Search();
+        search.reporter.start(progress, "Progress: ");
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try{
+            pool.invoke(new Restarts(null, search, 0, iterations));
+        }
+        finally{
+            pool.shutdown();
+            metrics = search.reporter.finish();
+            reason = search.budget.getReason();
+            
+            //A cancel that comes in from now on is for the next solve
+            wasCancelled = cancelled.getAndSet(false);
+        }
+        
+        //The largest of the threads' best cliques
+        Clique best = new Clique(graph.getNumberOfVertices());
+        for(Worker worker : search.workers){
+            best.reduce(worker.best);
+        }
+        return best;
+    }
+    
+    /**
+     * What the threads of one solve share.
+     */
+    private class Search {
+        
+        GraphReduction reduction;       //  Graph reduced to the vertices that can still be in a larger clique
+        Budget budget;                  //  When to stop before all restarts are done
+        StartScheduler scheduler;       //  Picks the start vertices
+        Metrics.Reporter reporter;      //  Collects the counters of the threads
+        List<Worker> workers;           //  Workspace of every thread
+        ThreadLocal<Worker> worker;     //  Workspace of the calling thread
+        
+        Search(){
+            reduction = new GraphReduction(graph);
+            budget = new Budget(CliqueEngine.this.budget.getDeadline(), CliqueEngine.this.budget.getTarget());
+            budget.setUpperBound(reduction.getCores().colouringBound(graph));
+            scheduler = StartScheduler.create(starts, reduction.getCores());
+            reporter = new Metrics.Reporter(System.currentTimeMillis(), 0);
+            workers = new ArrayList<Worker>();
+            worker = new ThreadLocal<Worker>(){
+                @Override
+                protected Worker initialValue(){
+                    synchronized(workers){
+                        Worker created = new Worker(Search.this, workers.size());
+                        workers.add(created);
+                        return created;
+                    }
+                }
+            };
+        }
+    }
+    
+    /**
+     * Workspace of one thread, which does the restarts as a thread of MaxCliqueSmp does.
+     */
+    private class Worker {
+        
+        Search search;              //  Search the thread works on
+        GreedyRestart restart;      //  Workspace of the restarts
+        Clique best;                //  Largest clique found by the thread
+        Random prng;                //  Pseudorandom number generator of the thread
+        Metrics metrics;            //  Counters of the thread
+        
+        Worker(Search _search, int rank){
+            search = _search;
+            restart = new GreedyRestart(graph.getNumberOfVertices(), graph.getMaxDegree());
+            best = new Clique(graph.getNumberOfVertices());
+            prng = new Random(GreedyRestart.seed(seed, 0, rank));
+            metrics = search.reporter.register();
+        }
+        
+        /**
+         * Do one restart, unless the search is cancelled or the budget spent.
+         * 
+         * @param iter  Index of the restart.
+         * @return      false if the search is to stop, so that the remaining iterations need not be looked at.
+         */
+        boolean run(int iter){
+            if(cancelled.get() || search.budget.isSpent(best.getSize())){
+                return false;
+            }
+            
+            //Restart on the graph reduced to the vertices that can still be in a larger clique, if any are left
+            Graph reduced = search.reduction.getGraph();
+            if(reduced.getNumberOfVertices() == 0){
+                return false;
+            }
+            int start = search.scheduler.next(reduced, prng);
+            if(start == -1){
+                metrics.skipped();
+                return true;
+            }
+            Clique current = restart.run(reduced, start, prng, improve);
+            search.scheduler.report(reduced.getLabel(start), current.getSize(), restart.isDeterministic());
+            metrics.restart(current.getSize(), restart.getSteps(), restart.getProbes());
+            
+            //A larger clique shrinks the graph further for all threads
+            if(current.getSize() > best.getSize()){
+                restart.copyTo(best);
+                metrics.improved(best.getSize(), search.reporter.elapsed());
+                if(reduce){
+                    search.reduction.update(best.getSize());
+                }
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * Task that does a range of iterations, forking off the upper half of what is left whenever its thread has few
+     * tasks queued up. It drops the rest of its range once the search is to stop, and completes once every task forked
+     * off has.
+     */
+    private static class Restarts extends CountedCompleter<Void> {
+        
+        Search search;      //  Search the iterations belong to
+        int lo;             //  First iteration left to do
+        int hi;             //  Iteration after the last
+        
+        /**
+         * Set up the task.
+         * 
+         * @param parent    Task that forked it, null for the first.
+         * @param _search   Search the iterations belong to.
+         * @param _lo       First iteration.
+         * @param _hi       Iteration after the last.
+         */
+        Restarts(CountedCompleter<?> parent, Search _search, int _lo, int _hi){
+            super(parent);
+            search = _search;
+            lo = _lo;
+            hi = _hi;
+        }
+        
+        @Override
+        public void compute(){
+            Worker worker = search.worker.get();
+            boolean split = getPool().getParallelism() > 1;
+            while(lo < hi){
+                if(split && hi - lo > 1 && getSurplusQueuedTaskCount() <= SURPLUS){
+                    int mid = (lo + hi) >>> 1;
+                    addToPendingCount(1);
+                    new Restarts(this, search, mid, hi).fork();
+                    hi = mid;
+                }
+                else if(!worker.run(lo++)){
+                    break;
+                }
+            }
+            tryComplete();
+        }
+    }
+    
+    /**
+     * Program execution begins here.
+     * 
+     * @param args  The filename, seed, number of iterations and options.
+     */
+    public static void main(String[] args) throws Exception {
+        
+        //Validate
+        Options options;
+        long seed;
+        int numberOfIterations;
+        try{
+            if(args.length < 3){
+                throw new IllegalArgumentException("Missing arguments");
+            }
+            seed = Long.parseLong(args[1]);
+            numberOfIterations = Integer.parseInt(args[2]);
+            options = new Options(args, 3, OPTIONS);
+        }
+        catch(IllegalArgumentException e){
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java CliqueEngine <filename> <seed> <numberOfIterations> [threads=<n>] [exact=true] [verify=true] [mapped=true] [reduce=false] [time=<seconds>] [target=<size>] [improve=<moves>] [starts=adaptive] [progress=<seconds>] [metrics=<file>]");
+            System.exit(1);
+            return;
+        }
+        
+        //Generate graph from the file.
+        long start = System.currentTimeMillis();
+        int threads = options.getInt("threads", Runtime.getRuntime().availableProcessors());
+        GraphLoader loader = new GraphLoader(new File(args[0]), threads);
+        loader.setVerify(options.getBoolean("verify", false));
+        loader.setMapped(options.getBoolean("mapped", false));
+        Graph graph = loader.load();
+        System.err.println(loader.report());
+        
+        //Search
+        CliqueEngine engine = new CliqueEngine(graph);
+        engine.setThreads(threads);
+        engine.setSeed(seed);
+        engine.setIterations(numberOfIterations);
+        engine.setReduce(options.getBoolean("reduce", true));
+        engine.setImprove(options.getInt("improve", 0));
+        engine.setStarts(options.getString("starts", StartScheduler.RANDOM));
+        engine.setProgress(options.getInt("progress", 0));
+        Budget budget = Budget.fromOptions(options, start);
+        engine.setBudget(budget);
+        Clique best = engine.solve();
+        Metrics metrics = engine.getMetrics();
+        metrics.setLoadTime(loader.getLoadTime());
+        metrics.summarize(options.getString("metrics", null));
+        if(engine.getReason() != null){
+            System.err.println("Stopped early, "+engine.getReason());
+        }
+        
+        //Prove the clique maximum with an exact search on all threads, or replace it with one that is.
+        Clique result = best;
+        boolean exact = options.getBoolean("exact", false);
+        boolean proven = false;
+        String reason = null;
+        if(exact){
+            BranchAndBound search = new BranchAndBound(graph);
+            search.setBudget(budget);
+            result = search.solve(best, threads);
+            proven = search.isProven();
+            reason = search.getReason();
+        }
+        
+        //Print the max clique found after all iterations.
+        int[] vertices = result.getVertices();
+        System.out.println("Vertices in the clique are as follows:");
+        for(int idx=0; idx<vertices.length; ++idx){
+            System.out.print(vertices[idx]+" ");
+        }
+        System.out.println("\nSize of max clique is: "+result.getSize());
+        if(exact){
+            System.out.println(proven ? "The clique is proven to be maximum" : "The clique could not be proven maximum, "+reason);
+        }
+    }
+}
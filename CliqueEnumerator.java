@@ -0,0 +1,593 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enumerates maximal cliques rather than keeping a single one: every maximum clique, every maximal clique of at least
+ * a given size, or the k largest maximal cliques. Bron-Kerbosch with Tomita's pivot, run per vertex in degeneracy order
+ * as Eppstein, Loffler and Strash do: the subproblem of a vertex holds its neighbours later in the order as candidates
+ * and those earlier as excluded, so every maximal clique is found exactly once, in the subproblem of its earliest
+ * vertex, and no subproblem has more candidates than the degeneracy of the graph. Candidate and excluded sets are
+ * bitsets over the subproblem's vertices, and vertices whose core number rules them out of a large enough clique are
+ * left out altogether. Only a candidate's row of the subproblem's adjacency matrix spans all of its vertices; an
+ * excluded vertex is only ever a pivot, which needs its adjacency to the candidates alone. With degeneracy d and
+ * largest degree D a subproblem thus takes O(d*D) bits, even around a vertex with many earlier neighbours.
+ * 
+ * The subproblems are fork-join tasks split as those of BranchAndBound. The cliques are not collected: the threads hand
+ * them to the calling thread through a bounded queue, and the calling thread passes them on to a Sink. A slow sink
+ * makes the threads wait for room in the queue, so memory stays bounded however many cliques there are. The k largest
+ * cliques are kept in a min-heap of k cliques instead, whose smallest sets the size a clique needs to be worth finding.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class CliqueEnumerator {
+    
+    /**
+     * Options the program takes after its positional arguments.
+     */
+    static final String[] OPTIONS = {"threads", "top", "min", "verify", "mapped"};
+    
+    /**
+     * Number of subproblems enumerated one after another by a single task.
+     */
+    static final int ROOTS_PER_TASK = 64;
+    
+    /**
+     * Number of cliques the queue to the sink holds before the threads wait for the sink.
+     */
+    static final int QUEUE_SIZE = 1024;
+    
+    /**
+     * Bitset operations of the pivoting and branching, on SIMD registers if the JVM allows.
+     */
+    static final BitKernel KERNEL = BitKernel.get();
+    
+    /**
+     * Receives the cliques as they are found, on the thread that called the enumeration.
+     */
+    public interface Sink {
+        
+        /**
+         * Take one clique.
+         * 
+         * @param vertices      Vertices of the clique, numbered as in the graph file. Not reused.
+         * @throws IOException  If the clique cannot be written. Stops the enumeration.
+         */
+        void accept(int[] vertices) throws IOException;
+    }
+    
+    /**
+     * Sink that writes every clique on a line of its own, its vertices separated by spaces.
+     */
+    public static class WriterSink implements Sink {
+        
+        private Writer writer;  //  Where to write the cliques
+        
+        /**
+         * Set up writing cliques.
+         * 
+         * @param _writer   Where to write them. Flushed by flush, not closed.
+         */
+        public WriterSink(Writer _writer){
+            writer = _writer;
+        }
+        
+        @Override
+        public void accept(int[] vertices) throws IOException{
+            for(int idx=0; idx<vertices.length; ++idx){
+                if(idx > 0){
+                    writer.write(' ');
+                }
+                writer.write(Integer.toString(vertices[idx]));
+            }
+            writer.write('\n');
+        }
+        
+        /**
+         * Flush the cliques written so far.
+         * 
+         * @throws IOException  If they cannot be written.
+         */
+        public void flush() throws IOException{
+            writer.flush();
+        }
+    }
+    
+    private Graph graph;                        //  Graph to enumerate the cliques of
+    private CoreDecomposition cores;            //  Core numbers and degeneracy order of the graph
+    private int minSize;                        //  Fewest vertices of a clique to report
+    private volatile int topSize;               //  Fewest vertices of a clique worth keeping in the heap, 0 for any
+    private PriorityQueue<int[]> top;           //  The k largest cliques so far, smallest first, null if not asked for
+    private int k;                              //  Number of cliques to keep in top
+    private ArrayBlockingQueue<int[]> queue;    //  Cliques on their way to the sink
+    private volatile boolean stopped;           //  Whether the sink failed and the threads are to stop
+    private ThreadLocal<Search> searches;       //  Workspace of the calling thread, reused by all its tasks
+    
+    /**
+     * Set up enumerating the cliques of the given graph.
+     * 
+     * @param _graph    The graph.
+     */
+    public CliqueEnumerator(Graph _graph){
+        this(_graph, new CoreDecomposition(_graph));
+    }
+    
+    /**
+     * Set up enumerating the cliques of the given graph, reusing its core decomposition.
+     * 
+     * @param _graph    The graph.
+     * @param _cores    Core decomposition of the graph.
+     */
+    public CliqueEnumerator(Graph _graph, CoreDecomposition _cores){
+        graph = _graph;
+        cores = _cores;
+    }
+    
+    /**
+     * Pass every maximum clique to a sink. Finds the size of a maximum clique with BranchAndBound first.
+     * 
+     * @param sink          Takes the cliques.
+     * @param threads       Number of threads to search with.
+     * @return              Number of maximum cliques.
+     * @throws IOException  If the sink fails.
+     */
+    public long maximum(Sink sink, int threads) throws IOException{
+        Clique clique = new BranchAndBound(graph, cores).solve(new Clique(graph.getNumberOfVertices()), threads);
+        return maximal(clique.getSize(), sink, threads);
+    }
+    
+    /**
+     * Pass every maximal clique of at least the given size to a sink, in no particular order.
+     * 
+     * @param size          Fewest vertices of a clique to pass on.
+     * @param sink          Takes the cliques.
+     * @param threads       Number of threads to search with.
+     * @return              Number of cliques passed on.
+     * @throws IOException  If the sink fails.
+     */
+    public long maximal(int size, Sink sink, int threads) throws IOException{
+        minSize = Math.max(1, size);
+        topSize = 0;
+        top = null;
+        return run(sink, threads);
+    }
+    
+    /**
+     * Pass the given number of largest maximal cliques to a sink, largest first. Which of several cliques of the same
+     * size make the cut depends on the order the threads find them in.
+     * 
+     * @param _k            Number of cliques.
+     * @param sink          Takes the cliques.
+     * @param threads       Number of threads to search with.
+     * @return              Number of cliques passed on, fewer than k only if the graph has fewer maximal cliques.
+     * @throws IOException  If the sink fails.
+     */
+    public long top(int _k, Sink sink, int threads) throws IOException{
+        if(_k < 1){
+            throw new IllegalArgumentException("Invalid number of cliques "+_k);
+        }
+        k = _k;
+        minSize = 1;
+        topSize = 0;
+        top = new PriorityQueue<int[]>(k, new Comparator<int[]>(){
+            @Override
+            public int compare(int[] clique1, int[] clique2){
+                return Integer.compare(clique1.length, clique2.length);
+            }
+        });
+        run(null, threads);
+        int[][] largest = new int[top.size()][];
+        for(int idx=largest.length-1; idx>=0; --idx){
+            largest[idx] = top.poll();
+        }
+        for(int[] clique : largest){
+            sink.accept(clique);
+        }
+        top = null;
+        return largest.length;
+    }
+    
+    /**
+     * Enumerate the subproblems on a fork-join pool while the calling thread passes the cliques on to the sink.
+     * 
+     * @param sink          Takes the cliques, null if they go to the heap.
+     * @param threads       Number of threads to search with.
+     * @return              Number of cliques passed on to the sink.
+     * @throws IOException  If the sink fails.
+     */
+    private long run(Sink sink, int threads) throws IOException{
+        queue = new ArrayBlockingQueue<int[]>(QUEUE_SIZE);
+        stopped = false;
+        searches = new ThreadLocal<Search>(){
+            @Override
+            protected Search initialValue(){
+                return new Search();
+            }
+        };
+        long count = 0;
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try{
+            ForkJoinTask<Void> task = pool.submit(new RootTask(0, graph.getNumberOfVertices()));
+            while(true){
+                boolean done = task.isDone();
+                int[] clique = queue.poll(10, TimeUnit.MILLISECONDS);
+                if(clique != null){
+                    sink.accept(clique);
+                    ++count;
+                }
+                else if(done){
+                    break;
+                }
+            }
+            task.join();
+        }
+        catch(InterruptedException e){
+            throw new IOException("Interrupted while enumerating cliques", e);
+        }
+        finally{
+            stopped = true;
+            pool.shutdown();
+            queue = null;
+            searches = null;
+        }
+        return count;
+    }
+    
+    /**
+     * Get the fewest vertices a clique needs to be reported.
+     * 
+     * @return  Size of clique.
+     */
+    private int threshold(){
+        return Math.max(minSize, topSize);
+    }
+    
+    /**
+     * Report a maximal clique, to the sink or the heap.
+     * 
+     * @param clique    Vertices of the clique, numbered as in the graph file.
+     */
+    private void report(int[] clique){
+        if(top != null){
+            synchronized(top){
+                if(top.size() < k){
+                    top.add(clique);
+                }
+                else if(clique.length > top.peek().length){
+                    top.poll();
+                    top.add(clique);
+                }
+                if(top.size() == k){
+                    topSize = top.peek().length+1;
+                }
+            }
+            return;
+        }
+        try{
+            while(!queue.offer(clique, 10, TimeUnit.MILLISECONDS)){
+                if(stopped){
+                    return;
+                }
+            }
+        }
+        catch(InterruptedException e){
+            stopped = true;
+        }
+    }
+    
+    /**
+     * Task that enumerates a range of subproblems, splitting the range in halves while it is large. Subproblems are
+     * numbered so that those of the densest cores come first.
+     */
+    class RootTask extends RecursiveAction {
+        
+        int lower;          //  First subproblem(inclusive)
+        int upper;          //  Last subproblem(exclusive)
+        
+        /**
+         * Set up the task.
+         * 
+         * @param _lower    First subproblem(inclusive).
+         * @param _upper    Last subproblem(exclusive).
+         */
+        RootTask(int _lower, int _upper){
+            lower = _lower;
+            upper = _upper;
+        }
+        
+        @Override
+        protected void compute(){
+            if(upper - lower > ROOTS_PER_TASK){
+                int middle = (lower + upper) >>> 1;
+                invokeAll(new RootTask(lower, middle), new RootTask(middle, upper));
+                return;
+            }
+            Search search = searches.get();
+            for(int index=lower; index<upper && !stopped; ++index){
+                search.root(graph.getNumberOfVertices()-1 - index);
+            }
+        }
+    }
+    
+    /**
+     * Enumeration of the subproblems of one thread. Holds the subproblem and the scratch space of every level of the
+     * search tree, reused from one subproblem and task to the next, so that nodes do not allocate. The candidates of a
+     * subproblem are numbered 0 to later-1 and the excluded vertices after them, so a bitset of candidates only needs
+     * its first laterWords longs.
+     */
+    class Search {
+        
+        int root;               //  Vertex every clique of the subproblem contains
+        int size;               //  Number of vertices of the subproblem
+        int later;              //  Number of candidates of the subproblem, numbered before the excluded vertices
+        int words;              //  Number of longs in a bitset of all the vertices
+        int laterWords;         //  Number of longs in a bitset of the candidates
+        int[] vertices;         //  Graph vertex of every subproblem vertex(index)
+        int[] local;            //  Subproblem vertex of every graph vertex, -1 for none
+        int[] neighbours;       //  Buffer for the neighbours of a graph vertex
+        long[][] adjacency;     //  Row of every candidate over all vertices, of every excluded vertex over candidates
+        int[] clique;           //  Vertices of the current clique, numbered within the subproblem
+        long[][] candidates;    //  Candidate set at every level
+        long[][] excluded;      //  Excluded set at every level
+        long[][] branches;      //  Candidates to branch on at every level
+        
+        Search(){
+            vertices = new int[graph.getMaxDegree()];
+            local = new int[graph.getNumberOfVertices()];
+            Arrays.fill(local, -1);
+            neighbours = new int[graph.getMaxDegree()];
+            adjacency = new long[0][];
+            clique = new int[graph.getMaxDegree()+1];
+            candidates = new long[graph.getMaxDegree()+2][];
+            excluded = new long[graph.getMaxDegree()+2][];
+            branches = new long[graph.getMaxDegree()+2][];
+        }
+        
+        /**
+         * Enumerate the maximal cliques whose earliest vertex in the degeneracy order is the given one.
+         * 
+         * @param idx   Position of the vertex in the degeneracy order.
+         */
+        void root(int idx){
+            int threshold = threshold();
+            root = cores.getOrder()[idx];
+            if(cores.getCoreNumber(root)+1 < threshold){
+                return;
+            }
+            
+            //Later neighbours are the candidates, earlier ones excluded. Neither can be in a large enough clique if
+            //its core number is too low.
+            int count = graph.getNeighbours(root, neighbours);
+            later = 0;
+            for(int nidx=0; nidx<count; ++nidx){
+                int neigh = neighbours[nidx];
+                if(cores.getPosition(neigh) > idx && cores.getCoreNumber(neigh)+1 >= threshold){
+                    vertices[later++] = neigh;
+                }
+            }
+            if(later+1 < threshold){
+                return;
+            }
+            size = later;
+            for(int nidx=0; nidx<count; ++nidx){
+                int neigh = neighbours[nidx];
+                if(cores.getPosition(neigh) < idx && cores.getCoreNumber(neigh)+1 >= threshold){
+                    vertices[size++] = neigh;
+                }
+            }
+            
+            //Adjacency of the candidates to all vertices, and of the excluded vertices to the candidates, which is the
+            //transpose of the excluded columns of the candidates' rows
+            words = Graph.wordsFor(size);
+            laterWords = Graph.wordsFor(later);
+            if(adjacency.length < size){
+                adjacency = Arrays.copyOf(adjacency, Math.max(size, 2*adjacency.length));
+            }
+            for(int i=0; i<size; ++i){
+                int length = i < later ? words : laterWords;
+                if(adjacency[i] == null || adjacency[i].length < length){
+                    adjacency[i] = new long[length];
+                }
+                Arrays.fill(adjacency[i], 0, length, 0L);
+            }
+            for(int i=0; i<size; ++i){
+                local[vertices[i]] = i;
+            }
+            for(int i=0; i<later; ++i){
+                long[] row = adjacency[i];
+                int degree = graph.getNeighbours(vertices[i], neighbours);
+                for(int nidx=0; nidx<degree; ++nidx){
+                    int j = local[neighbours[nidx]];
+                    if(j >= 0){
+                        row[j >>> 6] |= 1L << j;
+                        if(j >= later){
+                            adjacency[j][i >>> 6] |= 1L << i;
+                        }
+                    }
+                }
+            }
+            for(int i=0; i<size; ++i){
+                local[vertices[i]] = -1;
+            }
+            
+            long[] set = level(candidates, 0, laterWords);
+            long[] out = level(excluded, 0, words);
+            Arrays.fill(set, 0, laterWords, 0L);
+            Arrays.fill(out, 0, words, 0L);
+            for(int i=0; i<later; ++i){
+                set[i >>> 6] |= 1L << i;
+            }
+            for(int i=later; i<size; ++i){
+                out[i >>> 6] |= 1L << i;
+            }
+            expand(0);
+        }
+        
+        /**
+         * Get the scratch bitset of a level, allocating it the first time the level is reached by a subproblem needing
+         * that many words.
+         * 
+         * @param sets      Bitsets of every level.
+         * @param level     The level.
+         * @param length    Number of longs the bitset needs.
+         * @return          The bitset.
+         */
+        long[] level(long[][] sets, int level, int length){
+            if(sets[level] == null || sets[level].length < length){
+                sets[level] = new long[Math.max(1, length)];
+            }
+            return sets[level];
+        }
+        
+        /**
+         * Extend the clique of the given size by every candidate that is not a neighbour of the pivot, the vertex of
+         * the candidate and excluded sets adjacent to the most candidates.
+         * 
+         * @param depth     Number of clique vertices besides the root.
+         */
+        void expand(int depth){
+            long[] set = candidates[depth];
+            long[] out = excluded[depth];
+            int remaining = KERNEL.count(set, laterWords);
+            boolean anyExcluded = KERNEL.count(out, words) != 0;
+            if(remaining == 0){
+                if(!anyExcluded && depth+1 >= threshold()){
+                    found(depth);
+                }
+                return;
+            }
+            if(depth+1 + remaining < threshold() || stopped){
+                return;
+            }
+            
+            //Pivot on the vertex adjacent to the most candidates
+            int pivot = -1;
+            int most = -1;
+            for(int w=0; w<words; ++w){
+                long bits = w < laterWords ? set[w] | out[w] : out[w];
+                while(bits != 0){
+                    int u = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    int adjacent = KERNEL.andCount(set, adjacency[u], laterWords);
+                    if(adjacent > most){
+                        most = adjacent;
+                        pivot = u;
+                    }
+                }
+            }
+            long[] branch = level(branches, depth, laterWords);
+            KERNEL.andNot(set, adjacency[pivot], branch, 0, laterWords);
+            
+            //Only candidates are branched on, and their rows span the excluded vertices too
+            long[] nextSet = level(candidates, depth+1, laterWords);
+            long[] nextOut = level(excluded, depth+1, words);
+            for(int w=0; w<laterWords; ++w){
+                long bits = branch[w];
+                while(bits != 0){
+                    int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    KERNEL.and(set, adjacency[v], nextSet, laterWords);
+                    KERNEL.and(out, adjacency[v], nextOut, words);
+                    clique[depth] = v;
+                    expand(depth+1);
+                    set[w] &= ~(1L << v);
+                    out[w] |= 1L << v;
+                }
+            }
+        }
+        
+        /**
+         * Report the current clique, numbered as in the graph file.
+         * 
+         * @param depth     Number of clique vertices besides the root.
+         */
+        void found(int depth){
+            int[] found = new int[depth+1];
+            found[0] = graph.getLabel(root);
+            for(int idx=0; idx<depth; ++idx){
+                found[idx+1] = graph.getLabel(vertices[clique[idx]]);
+            }
+            report(found);
+        }
+    }
+    
+    /**
+     * Program execution begins here. Writes the cliques to the output file, or the standard output if it is -, one per
+     * line.
+     * 
+     * Usage: java CliqueEnumerator <filename> <outputfile> [threads=<n>] [top=<k>] [min=<size>] [verify=true] [mapped=true]
+     * <filename>           =   name of the file that contains the graph, as an edge list or a binary graph file.
+     * <outputfile>         =   file to write the cliques to, - for the standard output.
+     * threads=<n>          =   number of threads to search with, all cores by default(optional)
+     * top=<k>              =   write the k largest maximal cliques, largest first(optional)
+     * min=<size>           =   write every maximal clique of at least this size(optional)
+     * 
+     * Without top or min, every maximum clique is written.
+     * 
+     * @param args  The filename, output file and options.
+     */
+    public static void main(String[] args) throws Exception {
+        
+        //Validate
+        Options options;
+        try{
+            if(args.length < 2){
+                throw new IllegalArgumentException("Missing arguments");
+            }
+            options = new Options(args, 2, OPTIONS);
+            if(options.has("top") && options.has("min")){
+                throw new IllegalArgumentException("Give top or min, not both");
+            }
+        }
+        catch(IllegalArgumentException e){
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java CliqueEnumerator <filename> <outputfile> [threads=<n>] [top=<k>] [min=<size>] [verify=true] [mapped=true]");
+            System.exit(1);
+            return;
+        }
+        
+        //Generate graph from the file.
+        int threads = options.getInt("threads", Runtime.getRuntime().availableProcessors());
+        GraphLoader loader = new GraphLoader(new File(args[0]), threads);
+        loader.setVerify(options.getBoolean("verify", false));
+        loader.setMapped(options.getBoolean("mapped", false));
+        Graph graph = loader.load();
+        System.err.println(loader.report());
+        
+        //Enumerate
+        long start = System.currentTimeMillis();
+        Writer writer = args[1].equals("-") ? new OutputStreamWriter(System.out) : new FileWriter(args[1]);
+        WriterSink sink = new WriterSink(new BufferedWriter(writer, 1 << 16));
+        CliqueEnumerator enumerator = new CliqueEnumerator(graph);
+        long count;
+        String what;
+        if(options.has("top")){
+            count = enumerator.top(options.getInt("top", 1), sink, threads);
+            what = "largest maximal cliques";
+        }
+        else if(options.has("min")){
+            count = enumerator.maximal(options.getInt("min", 1), sink, threads);
+            what = "maximal cliques of at least "+options.getInt("min", 1)+" vertices";
+        }
+        else{
+            count = enumerator.maximum(sink, threads);
+            what = "maximum cliques";
+        }
+        sink.flush();
+        if(writer instanceof FileWriter){
+            writer.close();
+        }
+        System.err.println("Found "+count+" "+what+" in "+(System.currentTimeMillis()-start)+" ms");
+    }
+}
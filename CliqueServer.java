@@ -0,0 +1,304 @@
+import edu.rit.util.Random;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Server that loads a graph once and answers max clique queries about it over a local socket, so that a service asking
+ * many questions of the same graph pays for loading it only once. Every query is searched as MaxCliqueSeq does with
+ * exact=true: random restarts for a large clique, then BranchAndBound to prove it maximum or find one that is, within
+ * the time budget of a query.
+ * 
+ * The protocol is one line per query and one line per answer, on as many connections as the clients like:
+ * 
+ *   max                    =   a maximum clique of the graph
+ *   contains <v>           =   a maximum clique among those containing vertex v
+ *   subset <v1> <v2> ...   =   a maximum clique of the subgraph induced by the given vertices
+ *   quit                   =   close the connection
+ * 
+ * An answer is "OK <size> maximum|best <vertices>", where best means the time budget ran out before the clique was
+ * proven maximum, or "ERR <message>". Queries run on a shared pool of search threads, one thread per query, so that
+ * several queries are answered at once. Answers are cached by query, with the least recently asked ones evicted once
+ * the cache is full, and a query asked again while it is still being searched waits for the same search. An answer
+ * the time budget cut short is cached too, so asking again gives the same clique rather than another try.
+ * 
+ * Usage: java CliqueServer <filename> <port> [threads=<n>] [time=<seconds>] [cache=<queries>] [verify=true] [mapped=true]
+ * <filename>           =   name of the file that contains the graph, as an edge list or a binary graph file.
+ * <port>               =   port to listen on, on the loopback interface only.
+ * threads=<n>          =   number of queries searched at once, all cores by default(optional)
+ * time=<seconds>       =   time budget of every query(optional)
+ * cache=<queries>      =   number of answers to keep, 1024 by default(optional)
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class CliqueServer {
+    
+    /**
+     * Options the program takes after its positional arguments.
+     */
+    static final String[] OPTIONS = {"threads", "time", "cache", "verify", "mapped"};
+    
+    /**
+     * Number of random restarts before the exact search of a query.
+     */
+    static final int RESTARTS = 100;
+    
+    private Graph graph;                            //  Graph the queries are about
+    private CoreDecomposition cores;                //  Core decomposition of the whole graph
+    private ExecutorService search;                 //  Threads searching the queries
+    private long time;                              //  Time budget of a query in milliseconds, 0 for none
+    private LinkedHashMap<String,Future<String>> cache; //  Answers of the most recently asked queries
+    
+    /**
+     * Set up answering queries about a graph.
+     * 
+     * @param _graph    The graph.
+     * @param threads   Number of queries searched at once.
+     * @param _time     Time budget of a query in milliseconds, 0 for none.
+     * @param entries   Number of answers to keep.
+     */
+    public CliqueServer(Graph _graph, int threads, long _time, final int entries){
+        graph = _graph;
+        cores = new CoreDecomposition(graph);
+        search = Executors.newFixedThreadPool(threads);
+        time = _time;
+        cache = new LinkedHashMap<String,Future<String>>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,Future<String>> eldest){
+                return size() > entries;
+            }
+        };
+    }
+    
+    /**
+     * Answer one query, from the cache if it has been asked before.
+     * 
+     * @param line  The query.
+     * @return      The answer, without the line break.
+     */
+    public String answer(String line){
+        String[] words = line.trim().split("\\s+");
+        final String command = words[0].toLowerCase();
+        final int[] vertices = new int[words.length-1];
+        for(int idx=1; idx<words.length; ++idx){
+            try{
+                vertices[idx-1] = Integer.parseInt(words[idx]);
+            }
+            catch(NumberFormatException e){
+                return "ERR Invalid vertex "+words[idx];
+            }
+            if(vertices[idx-1] < 0 || graph.getIndex(vertices[idx-1]) == -1){
+                return "ERR No vertex "+words[idx];
+            }
+        }
+        if(command.equals("max") && vertices.length != 0
+                || command.equals("contains") && vertices.length != 1
+                || command.equals("subset") && vertices.length == 0){
+            return "ERR Wrong number of vertices for "+command;
+        }
+        if(!command.equals("max") && !command.equals("contains") && !command.equals("subset")){
+            return "ERR Unknown query "+command;
+        }
+        
+        //The same subset in any order is the same query
+        if(command.equals("subset")){
+            Arrays.sort(vertices);
+        }
+        String key = command+" "+Arrays.toString(vertices);
+        Future<String> answer;
+        FutureTask<String> task = null;
+        synchronized(cache){
+            answer = cache.get(key);
+            if(answer == null){
+                task = new FutureTask<String>(new Callable<String>(){
+                    @Override
+                    public String call(){
+                        return solve(command, vertices);
+                    }
+                });
+                answer = task;
+                cache.put(key, answer);
+            }
+        }
+        try{
+            if(task != null){
+                search.execute(task);
+            }
+            return answer.get();
+        }
+        catch(InterruptedException e){
+            return "ERR Interrupted";
+        }
+        catch(ExecutionException e){
+            synchronized(cache){
+                cache.remove(key);
+            }
+            return "ERR "+e.getCause();
+        }
+    }
+    
+    /**
+     * Search for the clique a query asks for.
+     * 
+     * @param command   max, contains or subset.
+     * @param vertices  Vertices given with the query, as numbered in the graph file.
+     * @return          The answer.
+     */
+    String solve(String command, int[] vertices){
+        long start = System.currentTimeMillis();
+        Graph sub = graph;
+        CoreDecomposition subCores = cores;
+        if(command.equals("contains")){
+            //Every clique containing v lies among v and its neighbours, and a maximum clique there contains v
+            int vertex = graph.getIndex(vertices[0]);
+            //The degree counts duplicate edges, which are listed once among the neighbours
+            int[] neighbourhood = new int[graph.getDegree(vertex)+1];
+            int count = graph.getNeighbours(vertex, neighbourhood);
+            neighbourhood = Arrays.copyOf(neighbourhood, count+1);
+            neighbourhood[count] = vertex;
+            Arrays.sort(neighbourhood);
+            sub = graph.induce(neighbourhood);
+            subCores = new CoreDecomposition(sub);
+        }
+        else if(command.equals("subset")){
+            int[] subset = new int[vertices.length];
+            int count = 0;
+            for(int idx=0; idx<vertices.length; ++idx){
+                if(idx == 0 || vertices[idx] != vertices[idx-1]){
+                    subset[count++] = graph.getIndex(vertices[idx]);
+                }
+            }
+            sub = graph.induce(Arrays.copyOf(subset, count));
+            subCores = new CoreDecomposition(sub);
+        }
+        
+        //Random restarts for a large clique to start the exact search from, with a fixed seed so that the answer does
+        //not depend on when the query was asked. The first restart runs whatever the budget, so that there is a
+        //maximal clique to answer with.
+        Budget budget = new Budget(time > 0 ? start + time : Long.MAX_VALUE, Integer.MAX_VALUE);
+        budget.setUpperBound(subCores.colouringBound(sub));
+        Clique best = new Clique(sub.getNumberOfVertices());
+        GreedyRestart restart = new GreedyRestart(sub.getNumberOfVertices(), sub.getMaxDegree());
+        Random prng = new Random(0);
+        for(int iter=0; iter<RESTARTS && sub.getNumberOfVertices()>0 && (iter == 0 || !budget.isSpent(best.getSize())); ++iter){
+            Clique current = restart.run(sub, prng.nextInt(sub.getNumberOfVertices()), prng, 0);
+            if(current.getSize() > best.getSize()){
+                best.set(current);
+            }
+        }
+        
+        //Prove it maximum, or find one that is
+        BranchAndBound exact = new BranchAndBound(sub, subCores);
+        exact.setBudget(budget);
+        Clique result = exact.solve(best);
+        
+        //Every clique found is maximal, and every maximal clique among v and its neighbours contains v
+        assert !command.equals("contains") || result.isVertexInClique(sub.getIndex(vertices[0]));
+        StringBuilder answer = new StringBuilder();
+        answer.append("OK ").append(result.getSize()).append(exact.isProven() ? " maximum" : " best");
+        int[] found = result.getVertices();
+        for(int idx=0; idx<found.length; ++idx){
+            answer.append(' ').append(sub.getLabel(found[idx]));
+        }
+        return answer.toString();
+    }
+    
+    /**
+     * Answer the queries of one connection until the client closes it or sends quit.
+     * 
+     * @param socket    The connection.
+     */
+    void serve(Socket socket){
+        try{
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"));
+            String line;
+            while((line = in.readLine()) != null){
+                if(line.trim().isEmpty()){
+                    continue;
+                }
+                if(line.trim().equalsIgnoreCase("quit")){
+                    break;
+                }
+                out.write(answer(line));
+                out.write('\n');
+                out.flush();
+            }
+        }
+        catch(IOException e){
+            System.err.println("Connection failed: "+e.getMessage());
+        }
+        finally{
+            try{
+                socket.close();
+            }
+            catch(IOException e){
+            }
+        }
+    }
+    
+    /**
+     * Program execution begins here.
+     * 
+     * @param args  The filename, port and options.
+     */
+    public static void main(String[] args) throws Exception {
+        
+        //Validate
+        Options options;
+        int port;
+        try{
+            if(args.length < 2){
+                throw new IllegalArgumentException("Missing arguments");
+            }
+            port = Integer.parseInt(args[1]);
+            options = new Options(args, 2, OPTIONS);
+        }
+        catch(IllegalArgumentException e){
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java CliqueServer <filename> <port> [threads=<n>] [time=<seconds>] [cache=<queries>] [verify=true] [mapped=true]");
+            System.exit(1);
+            return;
+        }
+        
+        //Generate graph from the file, once
+        int threads = options.getInt("threads", Runtime.getRuntime().availableProcessors());
+        GraphLoader loader = new GraphLoader(new File(args[0]), threads);
+        loader.setVerify(options.getBoolean("verify", false));
+        loader.setMapped(options.getBoolean("mapped", false));
+        Graph graph = loader.load();
+        System.err.println(loader.report());
+        final CliqueServer server = new CliqueServer(graph, threads, options.getLong("time", 0)*1000,
+                options.getInt("cache", 1024));
+        
+        //Every connection gets a thread of its own, which waits while the search threads work on its queries
+        ExecutorService connections = Executors.newCachedThreadPool();
+        ServerSocket listener = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        System.err.println("Serving queries on "+listener.getLocalSocketAddress());
+        while(true){
+            final Socket socket = listener.accept();
+            connections.execute(new Runnable(){
+                @Override
+                public void run(){
+                    server.serve(socket);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Core decomposition of a graph. The core number of a vertex is the largest k such that the vertex belongs to a
+ * subgraph in which every vertex has degree at least k, so no clique containing the vertex can have more than
+ * core number + 1 vertices. Also records the degeneracy order, the order in which the vertices are peeled off by
+ * repeatedly removing a vertex of smallest remaining degree. Every vertex has at most core number neighbours that come
+ * after it in this order. Computed in O(n + m) with the bucket algorithm of Batagelj and Zaversnik.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class CoreDecomposition {
+    
+    private int[] core;         //  Core number of every vertex(index)
+    private int[] order;        //  Vertices in degeneracy order
+    private int[] position;     //  Position of every vertex(index) in the degeneracy order
+    private int degeneracy;     //  Largest core number of any vertex
+    
+    /**
+     * Compute the core decomposition of the given graph.
+     * 
+     * @param graph     Graph to decompose.
+     */
+    public CoreDecomposition(Graph graph){
+        int numberOfVertices = graph.getNumberOfVertices();
+        core = new int[numberOfVertices];
+        order = new int[numberOfVertices];
+        position = new int[numberOfVertices];
+        
+        //Remaining degree of every vertex. Duplicate edges and self loops are not counted.
+        int[] neighbours = new int[graph.getMaxDegree()];
+        int maxDegree = 0;
+        for(int vertex=0; vertex<numberOfVertices; ++vertex){
+            int count = graph.getNeighbours(vertex, neighbours);
+            for(int idx=0; idx<count; ++idx){
+                if(neighbours[idx] != vertex){
+                    ++core[vertex];
+                }
+            }
+            maxDegree = Math.max(maxDegree, core[vertex]);
+        }
+        
+        //Sort vertices into buckets by degree
+        int[] bucket = new int[maxDegree+1];
+        for(int vertex=0; vertex<numberOfVertices; ++vertex){
+            ++bucket[core[vertex]];
+        }
+        int start = 0;
+        for(int deg=0; deg<=maxDegree; ++deg){
+            int size = bucket[deg];
+            bucket[deg] = start;
+            start += size;
+        }
+        for(int vertex=0; vertex<numberOfVertices; ++vertex){
+            position[vertex] = bucket[core[vertex]];
+            order[position[vertex]] = vertex;
+            ++bucket[core[vertex]];
+        }
+        for(int deg=maxDegree; deg>0; --deg){
+            bucket[deg] = bucket[deg-1];
+        }
+        bucket[0] = 0;
+        
+        //Peel off vertices in order of remaining degree, moving each neighbour down one bucket
+        for(int idx=0; idx<numberOfVertices; ++idx){
+            int vertex = order[idx];
+            degeneracy = Math.max(degeneracy, core[vertex]);
+            int count = graph.getNeighbours(vertex, neighbours);
+            for(int nidx=0; nidx<count; ++nidx){
+                int neigh = neighbours[nidx];
+                if(core[neigh] > core[vertex]){
+                    int neighDegree = core[neigh];
+                    int neighPosition = position[neigh];
+                    int firstPosition = bucket[neighDegree];
+                    int first = order[firstPosition];
+                    if(first != neigh){
+                        position[neigh] = firstPosition;
+                        order[firstPosition] = neigh;
+                        position[first] = neighPosition;
+                        order[neighPosition] = first;
+                    }
+                    ++bucket[neighDegree];
+                    --core[neigh];
+                }
+            }
+        }
+    }
+    
+    /**
+     * Given a vertex, return its core number.
+     * 
+     * @param vertex    The vertex to get the core number of.
+     * @return          Core number of the vertex.
+     */
+    public int getCoreNumber(int vertex){
+        return core[vertex];
+    }
+    
+    /**
+     * Get the largest core number of any vertex. No clique in the graph has more than degeneracy + 1 vertices.
+     * 
+     * @return  Degeneracy of the graph.
+     */
+    public int getDegeneracy(){
+        return degeneracy;
+    }
+    
+    /**
+     * Greedily colour the graph, taking the vertices in reverse degeneracy order and giving each the lowest colour
+     * none of its coloured neighbours has. Every vertex has at most core number neighbours coloured before it, so this
+     * needs at most degeneracy + 1 colours, and often fewer. The vertices of a clique all need different colours, so no
+     * clique has more vertices than the number of colours used. Takes O(n + m).
+     * 
+     * @param graph     The graph this decomposition was computed for.
+     * @return          Number of colours used.
+     */
+    public int colouringBound(Graph graph){
+        int numberOfVertices = graph.getNumberOfVertices();
+        int[] colour = new int[numberOfVertices];
+        int[] usedBy = new int[degeneracy+2];
+        int[] neighbours = new int[graph.getMaxDegree()];
+        int colours = 0;
+        for(int idx=numberOfVertices-1; idx>=0; --idx){
+            int vertex = order[idx];
+            
+            //Colours are numbered from 1, and usedBy[c] holds the position of the last vertex whose neighbour has c
+            int count = graph.getNeighbours(vertex, neighbours);
+            for(int nidx=0; nidx<count; ++nidx){
+                int neigh = neighbours[nidx];
+                if(position[neigh] > idx){
+                    usedBy[colour[neigh]] = idx+1;
+                }
+            }
+            int c = 1;
+            while(usedBy[c] == idx+1){
+                ++c;
+            }
+            colour[vertex] = c;
+            colours = Math.max(colours, c);
+        }
+        return colours;
+    }
+    
+    /**
+     * Get the vertices in degeneracy order. The returned array must not be modified.
+     * 
+     * @return  Array of all vertices, in the order they were peeled off.
+     */
+    public int[] getOrder(){
+        return order;
+    }
+    
+    /**
+     * Given a vertex, return its position in the degeneracy order.
+     * 
+     * @param vertex    The vertex to get the position of.
+     * @return          Index of the vertex in getOrder().
+     */
+    public int getPosition(int vertex){
+        return position[vertex];
+    }
+}
@@ -3,19 +3,46 @@ import edu.rit.io.OutStream;
 import edu.rit.pj2.Tuple;
 import java.io.File;
 import java.io.IOException;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
- * Graph representation as an adjacency matrix. Also stores the degree of every vertex and the total number of vertices.
+ * Graph representation. Dense graphs are held as an adjacency matrix where every row is packed into a bitset of longs,
+ * one bit per vertex, and the rows are laid out one after another in a single array, so that the matrix takes n*n/8
+ * bytes. Sparse graphs, where that matrix would be mostly zeros, are
+ * held in compressed sparse row form instead: the sorted neighbours of every vertex laid out one after another in a
+ * single array, plus an array of offsets into it, which takes O(m) memory. The representation is picked from the edge
+ * density given in the header of the input file. Also stores the degree of every vertex and the total number of
+ * vertices.
  * 
  * @author Yogesh Jagadeesan and Dler Ahmad
  */
 public class Graph extends Tuple{
     
-    private int [][] graph;         //  Adjacency matrix
+    /**
+     * Graphs with an edge density below this are stored in compressed sparse row form.
+     */
+    static final double SPARSE_DENSITY = 1.0/64;
+    
+    /**
+     * Size at which an encoded block of a sparse graph is sent to tuple space.
+     */
+    static final int ENCODED_BLOCK = 1 << 24;
+    
+    /**
+     * Longest array the virtual machine is sure to allocate. Bounds the adjacency matrix and the neighbour lists.
+     */
+    static final long MAX_ARRAY = Integer.MAX_VALUE - 8;
+    
+    private long [] graph;          //  Adjacency matrix, packed bitset rows one after another(dense graphs only).
+                                    //  At most MAX_ARRAY long, so that vertex*words never overflows.
+    private int words;              //  Number of longs in a row of the adjacency matrix
+    private int [] offset;          //  Start of every vertex's neighbours in adjacency(sparse graphs only)
+    private int [] adjacency;       //  Sorted neighbours of all vertices(sparse graphs only)
     private int [] degree;          //  Degree of every vertex(index)
+    private int maxDegree;          //  Largest degree of any vertex
     private int numberOfVertices;   //  Total number of vertices.
+    private int [] label;           //  Vertex of the original graph every vertex(index) stands for, null if itself
     
     /**
      * Default constructor.
@@ -24,33 +51,255 @@ public class Graph extends Tuple{
     }
     
     /**
-     * Parameterized constructor that takes in a file input and constructs the graph from it.
+     * Parameterized constructor that takes in a file input and constructs the graph from it. The file is parsed on the
+     * calling thread; use GraphLoader to parse large files on several threads.
      * 
      * @param file          File to construct the graph from(undirected).
-     * @throws Exception    Not used.
+     * @throws Exception    If the file cannot be read or is not in the expected format.
      */
     public Graph(File file) throws Exception{
-        BufferedReader br = new BufferedReader(new FileReader(file));
-        String line;
-        int count=0;
-        while((line=br.readLine())!=null){
-            String[] numbers = line.split(" ");
-            if(count==0){
-                numberOfVertices = Integer.parseInt(numbers[0]);
-                graph = new int[numberOfVertices][numberOfVertices];
-                degree = new int[numberOfVertices];
+        this(new GraphLoader(file, 1).parse());
+    }
+    
+    /**
+     * Construct the graph from parsed edges. Every edge counts towards the degree of both its vertices, duplicates
+     * included.
+     * 
+     * @param edges     Number of vertices and edges, as parsed by GraphLoader.
+     */
+    Graph(GraphLoader.Edges edges){
+        numberOfVertices = edges.numberOfVertices;
+        degree = new int[numberOfVertices];
+        for(int chunk=0; chunk<edges.chunks.length; ++chunk){
+            int[] pairs = edges.chunks[chunk];
+            for(int idx=0; idx<edges.lengths[chunk]; ++idx){
+                ++degree[pairs[idx]];
+            }
+        }
+        long numberOfEdges = edges.declaredEdges >= 0 ? edges.declaredEdges : edges.count();
+        if(isSparse(numberOfVertices, numberOfEdges) || !fitsMatrix(numberOfVertices)){
+            buildSparse(edges);
+        }
+        else{
+            words = wordsFor(numberOfVertices);
+            graph = new long[numberOfVertices*words];
+            for(int chunk=0; chunk<edges.chunks.length; ++chunk){
+                int[] pairs = edges.chunks[chunk];
+                for(int idx=0; idx<edges.lengths[chunk]; idx+=2){
+                    int vertex1 = pairs[idx];
+                    int vertex2 = pairs[idx+1];
+                    graph[vertex1*words + (vertex2 >>> 6)] |= 1L << vertex2;
+                    graph[vertex2*words + (vertex1 >>> 6)] |= 1L << vertex1;
+                }
+            }
+        }
+        computeMaxDegree();
+    }
+    
+    /**
+     * Construct the graph from its arrays, as read back by GraphFile. Exactly one of rows and adjacency is given.
+     * 
+     * @param _degree       Degree of every vertex.
+     * @param matrix        Adjacency matrix of a dense graph, rows one after another, or null.
+     * @param _offset       Start of every vertex's neighbours in adjacency, or null.
+     * @param _adjacency    Sorted neighbours of all vertices of a sparse graph, or null.
+     */
+    Graph(int[] _degree, long[] matrix, int[] _offset, int[] _adjacency){
+        numberOfVertices = _degree.length;
+        degree = _degree;
+        words = wordsFor(numberOfVertices);
+        graph = matrix;
+        offset = _offset;
+        adjacency = _adjacency;
+        computeMaxDegree();
+    }
+    
+    /**
+     * Build the subgraph induced by the given vertices. Vertex idx of the subgraph stands for vertices[idx] and keeps
+     * only the edges to other given vertices. getLabel gives back the vertex of the original graph, also across
+     * repeated reductions. The subgraph is stored sparse or dense by its own edge density.
+     * 
+     * @param vertices  Vertices to keep, in ascending order.
+     * @return          The induced subgraph.
+     */
+    public Graph induce(int[] vertices){
+        int[] index = new int[numberOfVertices];
+        Arrays.fill(index, -1);
+        for(int idx=0; idx<vertices.length; ++idx){
+            index[vertices[idx]] = idx;
+        }
+        
+        //Count the neighbours that are kept
+        int[] neighbours = new int[maxDegree];
+        int[] subDegree = new int[vertices.length];
+        long ends = 0;
+        for(int idx=0; idx<vertices.length; ++idx){
+            int count = getNeighbours(vertices[idx], neighbours);
+            for(int nidx=0; nidx<count; ++nidx){
+                if(index[neighbours[nidx]] >= 0){
+                    ++subDegree[idx];
+                }
+            }
+            ends += subDegree[idx];
+        }
+        
+        //Fill in the edges. Kept vertices are renumbered in order, so neighbour lists stay sorted.
+        Graph sub;
+        if(isSparse(vertices.length, ends/2) || !fitsMatrix(vertices.length)){
+            int[] subOffset = new int[vertices.length+1];
+            for(int idx=0; idx<vertices.length; ++idx){
+                subOffset[idx+1] = subOffset[idx] + subDegree[idx];
+            }
+            int[] subAdjacency = new int[subOffset[vertices.length]];
+            for(int idx=0; idx<vertices.length; ++idx){
+                int count = getNeighbours(vertices[idx], neighbours);
+                int fill = subOffset[idx];
+                for(int nidx=0; nidx<count; ++nidx){
+                    if(index[neighbours[nidx]] >= 0){
+                        subAdjacency[fill++] = index[neighbours[nidx]];
+                    }
+                }
             }
-            else{
-                int vertex1 = Integer.parseInt(numbers[0]);
-                int vertex2 = Integer.parseInt(numbers[1]);
-                graph[vertex1][vertex2] = 1;
-                graph[vertex2][vertex1] = 1;
-                ++degree[vertex1];
-                ++degree[vertex2];
+            sub = new Graph(subDegree, null, subOffset, subAdjacency);
+        }
+        else{
+            int subWords = wordsFor(vertices.length);
+            long[] matrix = new long[vertices.length*subWords];
+            for(int idx=0; idx<vertices.length; ++idx){
+                int count = getNeighbours(vertices[idx], neighbours);
+                for(int nidx=0; nidx<count; ++nidx){
+                    int neigh = index[neighbours[nidx]];
+                    if(neigh >= 0){
+                        matrix[idx*subWords + (neigh >>> 6)] |= 1L << neigh;
+                    }
+                }
             }
-            ++count;
+            sub = new Graph(subDegree, matrix, null, null);
+        }
+        sub.label = new int[vertices.length];
+        for(int idx=0; idx<vertices.length; ++idx){
+            sub.label[idx] = getLabel(vertices[idx]);
+        }
+        return sub;
+    }
+    
+    /**
+     * Get the vertex of the original graph that a vertex stands for. Differs from the vertex itself only in a graph
+     * built by induce.
+     * 
+     * @param vertex    The vertex.
+     * @return          The vertex of the original graph.
+     */
+    public int getLabel(int vertex){
+        return label == null ? vertex : label[vertex];
+    }
+
+    /**
+     * Set the vertices of the original graph that the vertices stand for, for a graph built from its arrays out of
+     * part of another graph.
+     * 
+     * @param _label    Vertex of the original graph every vertex stands for, in ascending order.
+     */
+    void setLabels(int[] _label){
+        label = _label;
+    }
+    
+    /**
+     * Find the vertex that stands for a vertex of the original graph. The inverse of getLabel.
+     *
+     * @param original  Vertex of the original graph.
+     * @return          The vertex standing for it, -1 if it was left out of this graph.
+     */
+    public int getIndex(int original){
+        if(label == null){
+            return original < numberOfVertices ? original : -1;
+        }
+        int index = Arrays.binarySearch(label, original);
+        return index >= 0 ? index : -1;
+    }
+    
+    /**
+     * Decide whether a graph of the given size is stored in compressed sparse row form.
+     * 
+     * @param _numberOfVertices     Number of vertices.
+     * @param _numberOfEdges        Number of edges.
+     * @return                      True if the edge density is below SPARSE_DENSITY.
+     */
+    static boolean isSparse(int _numberOfVertices, long _numberOfEdges){
+        double pairs = (double)_numberOfVertices * (_numberOfVertices - 1) / 2;
+        return pairs > 0 && _numberOfEdges < SPARSE_DENSITY * pairs;
+    }
+    
+    /**
+     * Decide whether the adjacency matrix of a graph of the given size fits in a single array. Graphs of more than
+     * about 370,000 vertices do not, and are stored in compressed sparse row form whatever their density.
+     * 
+     * @param _numberOfVertices     Number of vertices.
+     * @return                      True if n rows of wordsFor(n) longs are at most MAX_ARRAY longs.
+     */
+    static boolean fitsMatrix(int _numberOfVertices){
+        return (long)_numberOfVertices*wordsFor(_numberOfVertices) <= MAX_ARRAY;
+    }
+    
+    /**
+     * Build the compressed sparse row arrays from parsed edges. Degrees must already be counted. Neighbour lists are
+     * sorted and duplicate edges are stored only once.
+     * 
+     * @param edges     Parsed edges.
+     * @throws IllegalArgumentException     If the neighbour lists, duplicates included, do not fit in a single array.
+     */
+    private void buildSparse(GraphLoader.Edges edges){
+        long ends = 0;
+        for(int idx=0; idx<numberOfVertices; ++idx){
+            ends += degree[idx];
+        }
+        if(ends > MAX_ARRAY){
+            throw new IllegalArgumentException("The graph has "+ends/2+" edges, too many to hold in memory; at most "
+                    +MAX_ARRAY/2+" are supported");
+        }
+        offset = new int[numberOfVertices+1];
+        for(int idx=0; idx<numberOfVertices; ++idx){
+            offset[idx+1] = offset[idx] + degree[idx];
+        }
+        adjacency = new int[offset[numberOfVertices]];
+        int[] fill = new int[numberOfVertices];
+        for(int chunk=0; chunk<edges.chunks.length; ++chunk){
+            int[] pairs = edges.chunks[chunk];
+            for(int idx=0; idx<edges.lengths[chunk]; idx+=2){
+                int vertex1 = pairs[idx];
+                int vertex2 = pairs[idx+1];
+                adjacency[offset[vertex1] + fill[vertex1]++] = vertex2;
+                adjacency[offset[vertex2] + fill[vertex2]++] = vertex1;
+            }
+        }
+        
+        //Sort every neighbour list and squeeze out duplicates, compacting the array as we go
+        int write = 0;
+        for(int vertex=0; vertex<numberOfVertices; ++vertex){
+            int start = offset[vertex];
+            int end = offset[vertex+1];
+            Arrays.sort(adjacency, start, end);
+            offset[vertex] = write;
+            for(int idx=start; idx<end; ++idx){
+                if(idx == start || adjacency[idx] != adjacency[idx-1]){
+                    adjacency[write++] = adjacency[idx];
+                }
+            }
+        }
+        offset[numberOfVertices] = write;
+        if(write < adjacency.length){
+            adjacency = Arrays.copyOf(adjacency, write);
+        }
+    }
+    
+    /**
+     * Record the largest degree of any vertex.
+     */
+    private void computeMaxDegree(){
+        maxDegree = 0;
+        for(int idx=0; idx<numberOfVertices; ++idx){
+            maxDegree = Math.max(maxDegree, degree[idx]);
         }
-        br.close();
     }
     
     /**
@@ -63,6 +312,15 @@ public class Graph extends Tuple{
         return degree[vertex];
     }
     
+    /**
+     * Get the largest degree of any vertex. A buffer of this length can hold the neighbours of any vertex.
+     * 
+     * @return  Largest degree in the graph.
+     */
+    public int getMaxDegree(){
+        return maxDegree;
+    }
+    
     /**
      * Get the number of vertices in the graph
      * @return number of vertices in the graph
@@ -72,31 +330,192 @@ public class Graph extends Tuple{
     }
     
     /**
-     * Given a vertex, return the vertices its immediately connected to.
+     * If the graph is held in compressed sparse row form rather than as an adjacency matrix.
+     * 
+     * @return  true for a sparse graph, false for a dense one.
+     */
+    public boolean isSparse(){
+        return adjacency != null;
+    }
+    
+    /**
+     * If the graph is read in place from a memory mapped file, as a MappedGraph, rather than held in arrays.
+     * 
+     * @return  true for a mapped graph.
+     */
+    public boolean isMapped(){
+        return false;
+    }
+    
+    /**
+     * Number of longs needed to hold one bit per vertex.
+     * 
+     * @param _numberOfVertices     Number of vertices.
+     * @return                      Number of 64 bit words in a row.
+     */
+    static int wordsFor(int _numberOfVertices){
+        return (_numberOfVertices + 63) >>> 6;
+    }
+    
+    /**
+     * Get the adjacency matrix. The row of vertex v is the getWordsPerRow() longs starting at v*getWordsPerRow(), and bit
+     * (neigh & 63) of word (neigh >>> 6) of the row is set if neigh is a neighbour. The returned array must not be
+     * modified.
+     * 
+     * @return  The adjacency matrix, or null if the graph is sparse.
+     */
+    long[] getMatrix(){
+        return graph;
+    }
+    
+    /**
+     * Get the number of longs in a row of the adjacency matrix.
+     * 
+     * @return  Words per row.
+     */
+    int getWordsPerRow(){
+        return words;
+    }
+    
+    /**
+     * Given a vertex, copy the vertices its immediately connected to into the given buffer in ascending order. Costs
+     * O(degree) for sparse graphs and O(degree + n/64) for dense ones.
+     * 
+     * @param vertex        The vertex whose neighbours is required.
+     * @param neighbours    Buffer to copy the neighbours into, at least getDegree(vertex) long.
+     * @return              Number of neighbours copied.
+     */
+    public int getNeighbours(int vertex, int[] neighbours){
+        if(adjacency != null){
+            int start = offset[vertex];
+            int count = offset[vertex+1] - start;
+            System.arraycopy(adjacency, start, neighbours, 0, count);
+            return count;
+        }
+        int base = vertex*words;
+        int count = 0;
+        for(int word=0; word<words; ++word){
+            long bits = graph[base + word];
+            while(bits != 0){
+                neighbours[count++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Given a vertex and a list of candidate vertices in ascending order, keep only the candidates that are neighbours
+     * of the vertex. The candidates are compacted in place and stay in ascending order. For dense graphs every
+     * candidate is a bit test on a single row; for sparse graphs the candidates are searched for in the vertex's
+     * neighbour list, each search starting where the previous one stopped.
      * 
-     * @param vertex    The vertex whose neighbours is required.
-     * @return          An array containing the neighbours of the vertex.
+     * @param vertex        The vertex whose neighbourhood is intersected with the candidates.
+     * @param candidates    Candidate vertices, ascending.
+     * @param count         Number of candidates.
+     * @return              Number of candidates kept.
      */
-    public int[] getNeighbours(int vertex){
-        return graph[vertex];
+    public int retainNeighbours(int vertex, int[] candidates, int count){
+        int kept = 0;
+        if(adjacency != null){
+            int from = offset[vertex];
+            int end = offset[vertex+1];
+            for(int idx=0; idx<count && from<end; ++idx){
+                int pos = Arrays.binarySearch(adjacency, from, end, candidates[idx]);
+                if(pos >= 0){
+                    candidates[kept++] = candidates[idx];
+                    from = pos+1;
+                }
+                else{
+                    from = -pos-1;
+                }
+            }
+            return kept;
+        }
+        int base = vertex*words;
+        for(int idx=0; idx<count; ++idx){
+            int candidate = candidates[idx];
+            if((graph[base + (candidate >>> 6)] & (1L << candidate)) != 0){
+                candidates[kept++] = candidate;
+            }
+        }
+        return kept;
     }
     
     /**
-     * If two vertices are connected or not.
+     * Get the start of every vertex's neighbours in the compressed sparse row arrays. The returned array must not be
+     * modified.
+     * 
+     * @return  Offsets of the neighbour lists, n+1 long, or null if the graph is dense.
+     */
+    int[] getOffsets(){
+        return offset;
+    }
+    
+    /**
+     * Get the neighbour lists of all vertices in compressed sparse row form. The returned array must not be modified.
+     * 
+     * @return  Sorted neighbours of all vertices, or null if the graph is dense.
+     */
+    int[] getAdjacency(){
+        return adjacency;
+    }
+    
+    /**
+     * Given a vertex, return its first neighbour that is numbered at or after the given vertex.
+     * 
+     * @param vertex    The vertex whose neighbours are being iterated.
+     * @param from      The vertex to start looking from(inclusive).
+     * @return          The next neighbour, or -1 if there are no more neighbours.
+     */
+    public int nextNeighbour(int vertex, int from){
+        if(from >= numberOfVertices){
+            return -1;
+        }
+        if(adjacency != null){
+            int idx = Arrays.binarySearch(adjacency, offset[vertex], offset[vertex+1], from);
+            if(idx < 0){
+                idx = -idx-1;
+            }
+            return idx < offset[vertex+1] ? adjacency[idx] : -1;
+        }
+        int base = vertex*words;
+        int word = from >>> 6;
+        long bits = graph[base + word] & (-1L << from);
+        while(true){
+            if(bits != 0){
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if(++word == words){
+                return -1;
+            }
+            bits = graph[base + word];
+        }
+    }
+    
+    /**
+     * If two vertices are connected or not. For sparse graphs the shorter of the two neighbour lists is searched.
      * 
      * @param _vertex1  First vertex
      * @param _vertex2  Second vertex
-     * @return          true if the value is 1, false otherwise
+     * @return          true if the bit is set, false otherwise
      */
     public boolean isConnected(int _vertex1, int _vertex2){
-        if(graph[_vertex1][_vertex2] == 1){
-            return true;
+        if(adjacency != null){
+            if(offset[_vertex1+1] - offset[_vertex1] > offset[_vertex2+1] - offset[_vertex2]){
+                return Arrays.binarySearch(adjacency, offset[_vertex2], offset[_vertex2+1], _vertex1) >= 0;
+            }
+            return Arrays.binarySearch(adjacency, offset[_vertex1], offset[_vertex1+1], _vertex2) >= 0;
         }
-        return false;
+        return (graph[_vertex1*words + (_vertex2 >>> 6)] & (1L << _vertex2)) != 0;
     }
  
     /**
-     * Write this graph to tuple space.
+     * Write this graph to tuple space. Dense graphs are sent as the packed adjacency matrix, n*n/8 bytes. Sparse graphs
+     * are sent as an edge list: for every vertex, its neighbours numbered at or after it, as gaps from the previous
+     * neighbour in a variable length encoding of 7 bits per byte. Neighbours in a sorted list are close together, so
+     * most gaps take a single byte and the whole graph takes about one byte per edge. Both are preceded by the degrees
+     * and, for a graph built by induce, the vertices of the original graph that the vertices stand for.
      * 
      * @param out           The outstream to write the graph to.
      * @throws IOException  Not used
@@ -104,14 +523,52 @@ public class Graph extends Tuple{
     @Override
     public void writeOut(OutStream out)throws IOException{
         out.writeInt(numberOfVertices);
-        for(int idx=0; idx<numberOfVertices; ++idx){
-            out.writeIntArray(graph[idx]);
-        }
         out.writeIntArray(degree);
+        out.writeBoolean(label != null);
+        if(label != null){
+            out.writeIntArray(label);
+        }
+        out.writeBoolean(adjacency != null);
+        if(adjacency == null){
+            out.writeLongArray(graph);
+            return;
+        }
+        
+        //Encode the upper half of the neighbour lists in blocks of whole vertices
+        byte[] block = new byte[1024];
+        int length = 0;
+        int vertex = 0;
+        while(vertex < numberOfVertices){
+            int start = Arrays.binarySearch(adjacency, offset[vertex], offset[vertex+1], vertex);
+            if(start < 0){
+                start = -start-1;
+            }
+            int end = offset[vertex+1];
+            if(length + 5*(end - start + 1) > block.length){
+                if(length >= ENCODED_BLOCK){
+                    out.writeInt(vertex);
+                    out.writeByteArray(Arrays.copyOf(block, length));
+                    length = 0;
+                }
+                if(length + 5*(end - start + 1) > block.length){
+                    block = Arrays.copyOf(block, Math.max(2*block.length, length + 5*(end - start + 1)));
+                }
+            }
+            length = putVarint(block, length, end - start);
+            int previous = vertex;
+            for(int idx=start; idx<end; ++idx){
+                length = putVarint(block, length, adjacency[idx] - previous);
+                previous = adjacency[idx];
+            }
+            ++vertex;
+        }
+        out.writeInt(numberOfVertices);
+        out.writeByteArray(Arrays.copyOf(block, length));
     }
     
     /**
-     * Read graph from tuple space.
+     * Read graph from tuple space. A sparse graph is decoded straight into the compressed sparse row arrays, each
+     * allocated once.
      * 
      * @param in            The instream to read the graph from.
      * @throws IOException  Not used.
@@ -119,10 +576,98 @@ public class Graph extends Tuple{
     @Override
     public void readIn(InStream in) throws IOException{
         numberOfVertices = in.readInt();
-        graph = new int[numberOfVertices][];
+        degree = in.readIntArray();
+        label = in.readBoolean() ? in.readIntArray() : null;
+        words = wordsFor(numberOfVertices);
+        computeMaxDegree();
+        if(!in.readBoolean()){
+            graph = in.readLongArray();
+            return;
+        }
+        
+        //Read the blocks, then count every vertex's neighbours in both directions
+        ArrayList<byte[]> blocks = new ArrayList<byte[]>();
+        int last;
+        do{
+            last = in.readInt();
+            blocks.add(in.readByteArray());
+        }while(last < numberOfVertices);
+        offset = new int[numberOfVertices+1];
+        int[] position = new int[1];
+        int vertex = 0;
+        for(byte[] block : blocks){
+            position[0] = 0;
+            while(position[0] < block.length){
+                int count = getVarint(block, position);
+                int neigh = vertex;
+                for(int idx=0; idx<count; ++idx){
+                    neigh += getVarint(block, position);
+                    ++offset[vertex+1];
+                    if(neigh != vertex){
+                        ++offset[neigh+1];
+                    }
+                }
+                ++vertex;
+            }
+        }
         for(int idx=0; idx<numberOfVertices; ++idx){
-            graph[idx] = in.readIntArray();
+            offset[idx+1] += offset[idx];
         }
-        degree = in.readIntArray();
+        
+        //Fill the lists. Vertices are visited in order, so every list gets its lower neighbours in order first.
+        adjacency = new int[offset[numberOfVertices]];
+        int[] fill = Arrays.copyOf(offset, numberOfVertices);
+        vertex = 0;
+        for(byte[] block : blocks){
+            position[0] = 0;
+            while(position[0] < block.length){
+                int count = getVarint(block, position);
+                int neigh = vertex;
+                for(int idx=0; idx<count; ++idx){
+                    neigh += getVarint(block, position);
+                    adjacency[fill[vertex]++] = neigh;
+                    if(neigh != vertex){
+                        adjacency[fill[neigh]++] = vertex;
+                    }
+                }
+                ++vertex;
+            }
+        }
+    }
+    
+    /**
+     * Encode a non-negative int 7 bits per byte, low bits first, with the top bit of every byte but the last set.
+     * 
+     * @param buffer    Buffer to encode into, with room for 5 bytes.
+     * @param position  Position to encode at.
+     * @param value     Value to encode.
+     * @return          Position after the encoded value.
+     */
+    static int putVarint(byte[] buffer, int position, int value){
+        while((value & ~0x7F) != 0){
+            buffer[position++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte)value;
+        return position;
+    }
+    
+    /**
+     * Decode an int encoded by putVarint.
+     * 
+     * @param buffer    Buffer to decode from.
+     * @param position  Position to decode at, advanced past the value.
+     * @return          The value.
+     */
+    static int getVarint(byte[] buffer, int[] position){
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do{
+            b = buffer[position[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        }while(b < 0);
+        return value;
     }
 }
\ No newline at end of file
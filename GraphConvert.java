@@ -0,0 +1,48 @@
+import edu.rit.pj2.Task;
+import edu.rit.pj2.TerminateException;
+import java.io.File;
+
+/**
+ * Converts a graph from an edge list file to a binary graph file, so that later runs against the same graph load it
+ * without parsing. The binary file can be given to MaxCliqueSeq, MaxCliqueSmp and MaxCliqueClu in place of the edge
+ * list.
+ * 
+ * Usage: java pj2 threads=<numOfThreads> GraphConvert <filename> <binaryFilename>
+ * <numOfThreads>       =   Number of threads to parse the edge list with(optional)
+ * <filename>           =   name of the file that contains the graph.
+ * <binaryFilename>     =   name of the binary graph file to write.
+ * 
+ * @author  Yogesh Jagadeesan and Dler Ahmad
+ */
+public class GraphConvert extends Task{
+    
+    /**
+     * Program execution begins here.
+     * 
+     * @param args used to acquire the names of the edge list and binary files.
+     */
+    @Override
+    public void main(String[] args) throws Exception {
+        
+        //Validate
+        if(args.length!=2){
+            System.err.println("Usage: java pj2 GraphConvert <filename> <binaryFilename>");
+            throw new TerminateException("An error has occurred in one or more arguments..Exiting...");
+        }
+        File input = new File(args[0]);
+        File output = new File(args[1]);
+        if(!input.canRead()){
+            System.err.println("Invalid filename");
+            throw new TerminateException("An error has occurred in one or more arguments..Exiting...");
+        }
+        
+        //Load the edge list and write it back out in binary form
+        GraphLoader loader = new GraphLoader(input, threads());
+        Graph graph = loader.load();
+        System.err.println(loader.report());
+        long start = System.currentTimeMillis();
+        GraphFile.write(graph, output);
+        System.out.println("Wrote "+graph.getNumberOfVertices()+" vertices and "+loader.getNumberOfEdges()+" edges to "
+                +output+" in "+(System.currentTimeMillis()-start)+" ms");
+    }
+}
@@ -0,0 +1,366 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Binary graph file. Holds a graph exactly as Graph stores it in memory, so that loading it is a matter of memory
+ * mapping the file and copying the arrays out in bulk rather than parsing text. Meant for running many searches
+ * against the same graph: convert the edge list once with GraphConvert, then pass the binary file wherever an edge
+ * list is expected.
+ * 
+ * All values are little endian. The file starts with a 40 byte header:
+ * 
+ *  0   int     magic number, the bytes "MCLQ"
+ *  4   int     format version
+ *  8   int     flags, 1 if the graph is in compressed sparse row form
+ *  12  int     number of vertices n
+ *  16  long    number of edges
+ *  24  long    length of the payload in bytes
+ *  32  long    CRC-32 of the payload
+ * 
+ * The payload follows, every section padded to a multiple of 8 bytes: the degrees(n ints), then either the adjacency
+ * matrix(n rows of (n+63)/64 longs) or the offsets(n+1 ints) and neighbour lists(offsets[n] ints).
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class GraphFile {
+    
+    /**
+     * First four bytes of every binary graph file, "MCLQ".
+     */
+    static final int MAGIC = 0x514C434D;
+    
+    /**
+     * Version of the format written by this class.
+     */
+    static final int VERSION = 1;
+    
+    /**
+     * Size of the header in bytes.
+     */
+    static final int HEADER_SIZE = 40;
+    
+    /**
+     * Largest number of bytes mapped at once.
+     */
+    static final int WINDOW = 1 << 30;
+    
+    /**
+     * Check whether the given file is a binary graph file rather than an edge list.
+     * 
+     * @param file          File to check.
+     * @return              true if the file starts with the magic number.
+     * @throws IOException  If the file cannot be read.
+     */
+    public static boolean isGraphFile(File file) throws IOException{
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try{
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            return raf.getChannel().read(magic, 0) == 4 && magic.getInt(0) == MAGIC;
+        }
+        finally{
+            raf.close();
+        }
+    }
+    
+    /**
+     * Write a graph to a binary graph file.
+     * 
+     * @param graph         Graph to write.
+     * @param file          File to write to. Overwritten if it exists.
+     * @throws IOException  If the file cannot be written.
+     */
+    public static void write(Graph graph, File file) throws IOException{
+        if(graph.isMapped()){
+            throw new IOException("The graph is already mapped from a binary graph file");
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try{
+            raf.setLength(0);
+            Output out = new Output(raf.getChannel(), HEADER_SIZE);
+            int numberOfVertices = graph.getNumberOfVertices();
+            long degreeSum = 0;
+            for(int vertex=0; vertex<numberOfVertices; ++vertex){
+                out.putInt(graph.getDegree(vertex));
+                degreeSum += graph.getDegree(vertex);
+            }
+            out.pad();
+            if(graph.isSparse()){
+                int[] offsets = graph.getOffsets();
+                int[] adjacency = graph.getAdjacency();
+                for(int idx=0; idx<=numberOfVertices; ++idx){
+                    out.putInt(offsets[idx]);
+                }
+                out.pad();
+                for(int idx=0; idx<offsets[numberOfVertices]; ++idx){
+                    out.putInt(adjacency[idx]);
+                }
+                out.pad();
+            }
+            else{
+                long[] matrix = graph.getMatrix();
+                for(int idx=0; idx<matrix.length; ++idx){
+                    out.putLong(matrix[idx]);
+                }
+            }
+            out.flush();
+            
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(graph.isSparse() ? 1 : 0);
+            header.putInt(numberOfVertices);
+            header.putLong(degreeSum/2);
+            header.putLong(out.written);
+            header.putLong(out.crc.getValue());
+            header.flip();
+            raf.getChannel().write(header, 0);
+        }
+        finally{
+            raf.close();
+        }
+    }
+    
+    /**
+     * Read a graph from a binary graph file. The header is always checked; the payload checksum only if asked for,
+     * since it means reading every byte of the file.
+     * 
+     * @param file          File to read.
+     * @param verify        true to check the payload against its checksum.
+     * @return              The graph.
+     * @throws IOException  If the file cannot be read, is not a binary graph file of a known version or is corrupt,
+     *                      or holds an adjacency matrix too large for a single array.
+     */
+    public static Graph read(File file, boolean verify) throws IOException{
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try{
+            FileChannel channel = raf.getChannel();
+            ByteBuffer header = readHeader(file, channel, verify);
+            boolean sparse = (header.getInt(8) & 1) != 0;
+            int numberOfVertices = header.getInt(12);
+            long position = HEADER_SIZE;
+            int[] degree = new int[numberOfVertices];
+            position = readInts(channel, position, degree);
+            if(sparse){
+                int[] offsets = new int[numberOfVertices+1];
+                position = readInts(channel, position, offsets);
+                int[] adjacency = new int[offsets[numberOfVertices]];
+                readInts(channel, position, adjacency);
+                return new Graph(degree, null, offsets, adjacency);
+            }
+            if(!Graph.fitsMatrix(numberOfVertices)){
+                throw new IOException(file+" has too many vertices to read its adjacency matrix onto the heap; map it"
+                        +" instead");
+            }
+            long[] matrix = new long[numberOfVertices*Graph.wordsFor(numberOfVertices)];
+            readLongs(channel, position, matrix);
+            return new Graph(degree, matrix, null, null);
+        }
+        finally{
+            raf.close();
+        }
+    }
+    
+    /**
+     * Map a graph from a binary graph file without copying it onto the heap. Only the degrees, and the offsets of the
+     * neighbour lists of a sparse graph, are read into arrays; the adjacency matrix or the neighbour lists are read
+     * from the mapped file as they are used. The header is always checked; the payload checksum only if asked for.
+     * 
+     * @param file          File to map.
+     * @param verify        true to check the payload against its checksum.
+     * @return              The graph.
+     * @throws IOException  If the file cannot be read, is not a binary graph file of a known version or is corrupt.
+     */
+    public static MappedGraph map(File file, boolean verify) throws IOException{
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try{
+            FileChannel channel = raf.getChannel();
+            ByteBuffer header = readHeader(file, channel, verify);
+            boolean sparse = (header.getInt(8) & 1) != 0;
+            int numberOfVertices = header.getInt(12);
+            long position = HEADER_SIZE;
+            int[] degree = new int[numberOfVertices];
+            position = readInts(channel, position, degree);
+            if(sparse){
+                int[] offsets = new int[numberOfVertices+1];
+                position = readInts(channel, position, offsets);
+                return new MappedGraph(degree, offsets, channel, position);
+            }
+            return new MappedGraph(degree, channel, position);
+        }
+        finally{
+            raf.close();
+        }
+    }
+    
+    /**
+     * Read and check the header of a binary graph file.
+     * 
+     * @param file          The file, for messages.
+     * @param channel       The file, open for reading.
+     * @param verify        true to also check the payload against its checksum.
+     * @return              The header.
+     * @throws IOException  If the file is not a binary graph file of a known version or is corrupt.
+     */
+    private static ByteBuffer readHeader(File file, FileChannel channel, boolean verify) throws IOException{
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if(channel.read(header, 0) != HEADER_SIZE || header.getInt(0) != MAGIC){
+            throw new IOException(file+" is not a binary graph file");
+        }
+        if(header.getInt(4) != VERSION){
+            throw new IOException(file+" has unsupported format version "+header.getInt(4));
+        }
+        int numberOfVertices = header.getInt(12);
+        long payload = header.getLong(24);
+        if(numberOfVertices < 0 || channel.size() != HEADER_SIZE + payload){
+            throw new IOException(file+" is truncated or corrupt");
+        }
+        if(verify && checksum(channel, HEADER_SIZE, payload) != header.getLong(32)){
+            throw new IOException(file+" does not match its checksum");
+        }
+        return header;
+    }
+    
+    /**
+     * Read an array of ints by mapping the file a window at a time.
+     * 
+     * @param channel       The file.
+     * @param position      Position of the first int.
+     * @param values        Array to fill.
+     * @return              Position of the next section, after padding.
+     * @throws IOException  If the file cannot be read.
+     */
+    private static long readInts(FileChannel channel, long position, int[] values) throws IOException{
+        int done = 0;
+        while(done < values.length){
+            int count = Math.min(values.length - done, WINDOW/4);
+            IntBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, 4L*count)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            buffer.get(values, done, count);
+            done += count;
+            position += 4L*count;
+        }
+        return (position + 7) & ~7L;
+    }
+    
+    /**
+     * Read an array of longs by mapping the file a window at a time.
+     * 
+     * @param channel       The file.
+     * @param position      Position of the first long.
+     * @param values        Array to fill.
+     * @throws IOException  If the file cannot be read.
+     */
+    private static void readLongs(FileChannel channel, long position, long[] values) throws IOException{
+        int done = 0;
+        while(done < values.length){
+            int count = Math.min(values.length - done, WINDOW/8);
+            LongBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, 8L*count)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            buffer.get(values, done, count);
+            done += count;
+            position += 8L*count;
+        }
+    }
+    
+    /**
+     * Compute the CRC-32 of part of the file.
+     * 
+     * @param channel       The file.
+     * @param position      Start of the part.
+     * @param length        Length of the part in bytes.
+     * @return              The checksum.
+     * @throws IOException  If the file cannot be read.
+     */
+    private static long checksum(FileChannel channel, long position, long length) throws IOException{
+        CRC32 crc = new CRC32();
+        while(length > 0){
+            int count = (int)Math.min(length, WINDOW);
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, count));
+            position += count;
+            length -= count;
+        }
+        return crc.getValue();
+    }
+    
+    /**
+     * Buffered little endian output that keeps a running checksum of everything written.
+     */
+    static class Output {
+        
+        FileChannel channel;    //  The file
+        ByteBuffer buffer;      //  Bytes not yet written
+        CRC32 crc;              //  Checksum of all bytes written
+        long position;          //  Position of the next write in the file
+        long written;           //  Number of bytes written
+        
+        /**
+         * Set up writing to the given file.
+         * 
+         * @param _channel      The file.
+         * @param _position     Position to start writing at.
+         */
+        Output(FileChannel _channel, long _position){
+            channel = _channel;
+            position = _position;
+            buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            crc = new CRC32();
+        }
+        
+        /**
+         * Write an int.
+         * 
+         * @param value     The int.
+         */
+        void putInt(int value) throws IOException{
+            if(buffer.remaining() < 4){
+                flush();
+            }
+            buffer.putInt(value);
+        }
+        
+        /**
+         * Write a long.
+         * 
+         * @param value     The long.
+         */
+        void putLong(long value) throws IOException{
+            if(buffer.remaining() < 8){
+                flush();
+            }
+            buffer.putLong(value);
+        }
+        
+        /**
+         * Write zeros up to the next multiple of 8 bytes.
+         */
+        void pad() throws IOException{
+            while(((written + buffer.position()) & 7) != 0){
+                if(!buffer.hasRemaining()){
+                    flush();
+                }
+                buffer.put((byte)0);
+            }
+        }
+        
+        /**
+         * Write out the buffered bytes.
+         */
+        void flush() throws IOException{
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while(buffer.hasRemaining()){
+                int count = channel.write(buffer, position);
+                position += count;
+                written += count;
+            }
+            buffer.clear();
+        }
+    }
+}
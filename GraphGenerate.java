@@ -0,0 +1,440 @@
+import edu.rit.pj2.Loop;
+import edu.rit.pj2.Schedule;
+import edu.rit.pj2.Task;
+import edu.rit.pj2.TerminateException;
+import edu.rit.util.Random;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Generates a random graph as an edge list file in the format the programs read, optionally with a clique planted in
+ * it, and writes the planted clique to a sidecar file named <filename>.clique so that a run on the graph can be checked
+ * against it. Two models are available:
+ * 
+ * gnp      =   every pair of vertices is an edge with probability <param>, the Erdos-Renyi G(n,p) graph.
+ * powerlaw =   the Chung-Lu graph with expected degrees following a power law of exponent EXPONENT and average
+ *              <param>: vertex i has weight proportional to (i+1)^(-1/(EXPONENT-1)), and vertices u and v are adjacent
+ *              with probability min(1, w(u)w(v)/sum of all weights).
+ * 
+ * Nothing of the graph is held in memory. The pairs (u, v) with u < v are cut into BLOCKS blocks of consecutive rows
+ * u of about the same number of pairs, and every block is generated by its own pseudorandom number generator, seeded
+ * from a mix of the seed and the block so that no block of one seed repeats a block of another, into its own part
+ * file. The blocks are spread over the threads, and once they are all
+ * written the header and the parts are copied into the output in order, so the file only depends on the seed and not
+ * on the number of threads. Within a row the gaps between edges are drawn from the geometric distribution(and for
+ * the power law thinned as by Miller and Hagberg), so generating takes time in the number of edges rather than pairs.
+ * 
+ * Usage: java pj2 threads=<numOfThreads> GraphGenerate <model> <numberOfVertices> <param> <seed> <filename> [<cliqueSize>]
+ * <numOfThreads>       =   Number of threads to generate with(optional)
+ * <model>              =   gnp or powerlaw
+ * <numberOfVertices>   =   number of vertices of the graph
+ * <param>              =   edge probability for gnp, average degree for powerlaw
+ * <seed>               =   Random number generator's seed
+ * <filename>           =   name of the edge list file to write
+ * <cliqueSize>         =   number of random vertices to join into a planted clique(optional)
+ * 
+ * @author  Yogesh Jagadeesan and Dler Ahmad
+ */
+public class GraphGenerate extends Task{
+    
+    /**
+     * Number of blocks the pairs are cut into, at most one per row.
+     */
+    static final int BLOCKS = 1024;
+    
+    /**
+     * Exponent of the degree distribution of the power law model.
+     */
+    static final double EXPONENT = 2.5;
+    
+    private String model;           //  gnp or powerlaw
+    private int numberOfVertices;   //  Number of vertices
+    private double param;           //  Edge probability or average degree
+    private long seed;              //  Seed of the generators
+    private long[] planted;         //  Vertices of the planted clique as a bitset, null for none
+    private double weightScale;     //  Factor from (i+1)^(-1/(EXPONENT-1)) to the weight of vertex i
+    private double totalWeight;     //  Sum of all weights
+    
+    /**
+     * Program execution begins here.
+     * 
+     * @param args used to acquire the model, its parameters, the seed, the output file and the clique size.
+     */
+    @Override
+    public void main(String[] args) throws Exception {
+        
+        //Validate
+        int cliqueSize = 0;
+        try{
+            if(args.length < 5 || args.length > 6){
+                throw new IllegalArgumentException("Wrong number of arguments");
+            }
+            model = args[0];
+            numberOfVertices = Integer.parseInt(args[1]);
+            param = Double.parseDouble(args[2]);
+            seed = Long.parseLong(args[3]);
+            if(args.length == 6){
+                cliqueSize = Integer.parseInt(args[5]);
+            }
+            if(!model.equals("gnp") && !model.equals("powerlaw")){
+                throw new IllegalArgumentException("Invalid model "+model+", expected gnp or powerlaw");
+            }
+            if(numberOfVertices <= 0 || param < 0 || (model.equals("gnp") && param > 1)
+                    || cliqueSize < 0 || cliqueSize > numberOfVertices){
+                throw new IllegalArgumentException("Invalid number of vertices, parameter or clique size");
+            }
+        }
+        catch(IllegalArgumentException e){
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java pj2 GraphGenerate <model> <numberOfVertices> <param> <seed> <filename> [<cliqueSize>]");
+            throw new TerminateException("An error has occurred in one or more arguments..Exiting...");
+        }
+        final File output = new File(args[4]);
+        long start = System.currentTimeMillis();
+        
+        //Pick the planted clique, and write it out beside the graph
+        int[] clique = plant(cliqueSize);
+        if(cliqueSize > 0){
+            PrintWriter sidecar = new PrintWriter(output.getPath()+".clique");
+            try{
+                sidecar.println(cliqueSize);
+                for(int idx=0; idx<cliqueSize; ++idx){
+                    sidecar.print(clique[idx]+(idx+1 < cliqueSize ? " " : "\n"));
+                }
+            }
+            finally{
+                sidecar.close();
+            }
+        }
+        
+        //Weights of the power law, computed on the fly from the index of a vertex
+        if(model.equals("powerlaw")){
+            double sum = 0;
+            for(int vertex=0; vertex<numberOfVertices; ++vertex){
+                sum += Math.pow(vertex+1, -1/(EXPONENT-1));
+            }
+            totalWeight = param*numberOfVertices;
+            weightScale = totalWeight/sum;
+        }
+        
+        //Generate the blocks in parallel, each into its own part file
+        final int blocks = Math.min(BLOCKS, numberOfVertices);
+        final int[] firstRow = new int[blocks+1];
+        long pairs = pairsBefore(numberOfVertices);
+        for(int block=0; block<=blocks; ++block){
+            firstRow[block] = rowAt(pairs/blocks*block + pairs%blocks*block/blocks);
+        }
+        firstRow[blocks] = numberOfVertices;
+        final long[] edges = new long[blocks+1];
+        parallelFor(0, blocks-1).schedule(Schedule.dynamic).exec(new Loop(){
+            @Override
+            public void run(int block) throws Exception{
+                EdgeWriter out = new EdgeWriter(new FileOutputStream(part(output, block)));
+                try{
+                    Random prng = new Random(streamSeed(seed, block));
+                    for(int row=firstRow[block]; row<firstRow[block+1]; ++row){
+                        if(model.equals("gnp")){
+                            gnpRow(row, prng, out);
+                        }
+                        else{
+                            powerLawRow(row, prng, out);
+                        }
+                    }
+                    edges[block] = out.count;
+                }
+                finally{
+                    out.close();
+                }
+            }
+        });
+        
+        //The planted clique comes last, in a part of its own
+        EdgeWriter out = new EdgeWriter(new FileOutputStream(part(output, blocks)));
+        try{
+            for(int idx=0; idx<cliqueSize; ++idx){
+                for(int next=idx+1; next<cliqueSize; ++next){
+                    out.write(clique[idx], clique[next]);
+                }
+            }
+            edges[blocks] = out.count;
+        }
+        finally{
+            out.close();
+        }
+        
+        //Header, then the parts in order
+        long numberOfEdges = 0;
+        for(long count : edges){
+            numberOfEdges += count;
+        }
+        FileOutputStream file = new FileOutputStream(output);
+        try{
+            file.write((numberOfVertices+" "+numberOfEdges+"\n").getBytes("US-ASCII"));
+            FileChannel channel = file.getChannel();
+            for(int block=0; block<=blocks; ++block){
+                File partFile = part(output, block);
+                FileInputStream in = new FileInputStream(partFile);
+                try{
+                    FileChannel from = in.getChannel();
+                    long size = from.size();
+                    for(long done=0; done<size; ){
+                        done += from.transferTo(done, size-done, channel);
+                    }
+                }
+                finally{
+                    in.close();
+                }
+                partFile.delete();
+            }
+        }
+        finally{
+            file.close();
+        }
+        System.out.println("Wrote "+numberOfVertices+" vertices and "+numberOfEdges+" edges to "+output+" in "
+                +(System.currentTimeMillis()-start)+" ms"+(cliqueSize > 0 ? ", planted clique in "+output+".clique" : ""));
+    }
+    
+    /**
+     * Pick the vertices of the planted clique by Floyd's algorithm, and mark them in the planted bitset.
+     * 
+     * @param size  Number of vertices of the clique.
+     * @return      The vertices in ascending order.
+     */
+    private int[] plant(int size){
+        Random prng = new Random(streamSeed(seed, BLOCKS));
+        HashSet<Integer> chosen = new HashSet<Integer>();
+        for(int bound=numberOfVertices-size; bound<numberOfVertices; ++bound){
+            int vertex = prng.nextInt(bound+1);
+            chosen.add(chosen.contains(vertex) ? bound : vertex);
+        }
+        int[] clique = new int[size];
+        int idx = 0;
+        for(int vertex : chosen){
+            clique[idx++] = vertex;
+        }
+        Arrays.sort(clique);
+        if(size > 0){
+            planted = new long[(numberOfVertices + 63) >>> 6];
+            for(int vertex : clique){
+                planted[vertex >>> 6] |= 1L << vertex;
+            }
+        }
+        return clique;
+    }
+    
+    /**
+     * Check whether a pair is left to the planted clique, which writes it itself.
+     * 
+     * @param u     A vertex.
+     * @param v     Another vertex.
+     * @return      true if both are in the planted clique.
+     */
+    private boolean isPlanted(int u, int v){
+        return planted != null && (planted[u >>> 6] & (1L << u)) != 0 && (planted[v >>> 6] & (1L << v)) != 0;
+    }
+    
+    /**
+     * Generate the edges (row, v) with v > row of the G(n,p) graph.
+     * 
+     * @param row           The row.
+     * @param prng          Generator of the block.
+     * @param out           Where to write the edges.
+     * @throws IOException  If the part file cannot be written.
+     */
+    private void gnpRow(int row, Random prng, EdgeWriter out) throws IOException{
+        if(param == 0){
+            return;
+        }
+        double logMiss = Math.log(1 - param);
+        long v = row;
+        while(true){
+            v += param >= 1 ? 1 : 1 + (long)(Math.log(1 - prng.nextDouble())/logMiss);
+            if(v >= numberOfVertices){
+                return;
+            }
+            if(!isPlanted(row, (int)v)){
+                out.write(row, (int)v);
+            }
+        }
+    }
+    
+    /**
+     * Generate the edges (row, v) with v > row of the Chung-Lu graph. Weights fall with the vertex number, so the edge
+     * probability p of the current v bounds that of every later v: skip ahead geometrically with p, then keep the edge
+     * with probability q/p, q being the probability at the vertex landed on.
+     * 
+     * @param row           The row.
+     * @param prng          Generator of the block.
+     * @param out           Where to write the edges.
+     * @throws IOException  If the part file cannot be written.
+     */
+    private void powerLawRow(int row, Random prng, EdgeWriter out) throws IOException{
+        double weight = weight(row);
+        long v = row+1;
+        double p = v < numberOfVertices ? Math.min(1, weight*weight((int)v)/totalWeight) : 0;
+        while(v < numberOfVertices && p > 0){
+            if(p < 1){
+                v += (long)(Math.log(1 - prng.nextDouble())/Math.log(1 - p));
+            }
+            if(v < numberOfVertices){
+                double q = Math.min(1, weight*weight((int)v)/totalWeight);
+                if(prng.nextDouble() < q/p && !isPlanted(row, (int)v)){
+                    out.write(row, (int)v);
+                }
+                p = q;
+                ++v;
+            }
+        }
+    }
+    
+    /**
+     * Get the weight of a vertex in the power law model.
+     * 
+     * @param vertex    The vertex.
+     * @return          Its expected degree.
+     */
+    private double weight(int vertex){
+        return weightScale*Math.pow(vertex+1, -1/(EXPONENT-1));
+    }
+    
+    /**
+     * Count the pairs (u, v) with u < v in the rows before the given row.
+     * 
+     * @param row   The row.
+     * @return      Number of pairs.
+     */
+    private long pairsBefore(long row){
+        return row*(numberOfVertices-1) - row*(row-1)/2;
+    }
+    
+    /**
+     * Find the row that holds the given pair.
+     * 
+     * @param pair  Index of the pair, row by row.
+     * @return      The first row whose pairs reach past it.
+     */
+    private int rowAt(long pair){
+        int lower = 0;
+        int upper = numberOfVertices;
+        while(lower < upper){
+            int middle = (lower + upper) >>> 1;
+            if(pairsBefore(middle+1) <= pair){
+                lower = middle+1;
+            }
+            else{
+                upper = middle;
+            }
+        }
+        return lower;
+    }
+    
+    /**
+     * Derive the seed of one of the generators of a run: the block number for a block, BLOCKS for the planted clique.
+     * Seed and stream are combined through the SplitMix64 finaliser, so that neighbouring seeds and streams give
+     * unrelated generators rather than, as adding them would, the same generator for seed s block b+1 and seed s+1
+     * block b.
+     * 
+     * @param seed      Seed given to the program.
+     * @param stream    Number of the generator.
+     * @return          Seed of the generator.
+     */
+    static long streamSeed(long seed, int stream){
+        return mix(mix(seed) + stream);
+    }
+    
+    /**
+     * The SplitMix64 finaliser, a bijection on longs that spreads every input bit over the whole output.
+     * 
+     * @param value     Value to mix.
+     * @return          The mixed value.
+     */
+    private static long mix(long value){
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+    
+    /**
+     * Get the part file of a block.
+     * 
+     * @param output    The output file.
+     * @param block     The block.
+     * @return          The part file, beside the output.
+     */
+    private static File part(File output, int block){
+        return new File(output.getPath()+".part"+block);
+    }
+    
+    /**
+     * Writes edges as lines of text, formatting the numbers into a buffer without creating strings.
+     */
+    private static class EdgeWriter {
+        
+        private OutputStream out;       //  Where to write
+        private byte[] buffer;          //  Bytes not written yet
+        private int length;             //  Number of bytes in buffer
+        private long count;             //  Number of edges written
+        
+        EdgeWriter(OutputStream _out){
+            out = _out;
+            buffer = new byte[1 << 16];
+        }
+        
+        /**
+         * Write an edge.
+         * 
+         * @param u             A vertex.
+         * @param v             Another vertex.
+         * @throws IOException  If the file cannot be written.
+         */
+        void write(int u, int v) throws IOException{
+            if(length + 24 > buffer.length){
+                out.write(buffer, 0, length);
+                length = 0;
+            }
+            number(u);
+            buffer[length++] = ' ';
+            number(v);
+            buffer[length++] = '\n';
+            ++count;
+        }
+        
+        /**
+         * Format a number into the buffer.
+         * 
+         * @param value     The number, not negative.
+         */
+        private void number(int value){
+            int digits = 1;
+            for(int rest=value/10; rest>0; rest/=10){
+                ++digits;
+            }
+            for(int idx=length+digits-1; idx>=length; --idx){
+                buffer[idx] = (byte)('0' + value%10);
+                value /= 10;
+            }
+            length += digits;
+        }
+        
+        /**
+         * Write out what is left and close the file.
+         * 
+         * @throws IOException  If the file cannot be written.
+         */
+        void close() throws IOException{
+            try{
+                out.write(buffer, 0, length);
+            }
+            finally{
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,410 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Loads a graph from an edge list file in the format described in the Readme. The file is memory mapped and the
+ * numbers are parsed straight from its bytes, without creating strings or other objects per line. The file is cut into
+ * chunks at line boundaries and the chunks are parsed in parallel, then the edges of all chunks are merged into the
+ * graph. Binary graph files written by GraphConvert are recognised by their magic number and read with GraphFile
+ * instead. Records how long loading took so that it can be reported separately from the search.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class GraphLoader {
+    
+    /**
+     * Largest number of bytes mapped at once. A single mapping cannot exceed 2 GB.
+     */
+    static final long MAX_CHUNK = 1L << 30;
+    
+    /**
+     * Number of chunks per thread, so that threads that finish early can pick up another chunk.
+     */
+    static final int CHUNKS_PER_THREAD = 4;
+    
+    private File file;              //  File to load
+    private int threads;            //  Number of threads to parse with
+    private boolean verify;         //  If the checksum of a binary graph file is checked
+    private boolean mapped;         //  If a binary graph file is mapped in place rather than read onto the heap
+    private long numberOfEdges;     //  Number of edges loaded
+    private long loadTime;          //  Time taken to load, in nanoseconds
+    
+    /**
+     * Edges parsed from a file, in one array per chunk.
+     */
+    static class Edges {
+        
+        int numberOfVertices;       //  Number of vertices from the header
+        long declaredEdges;         //  Number of edges from the header, -1 if it has none
+        int[][] chunks;             //  Edge endpoints in pairs, one array per chunk
+        int[] lengths;              //  Number of ints used in every chunk array
+        
+        /**
+         * Total number of edges in all chunks.
+         * 
+         * @return  Number of edges.
+         */
+        long count(){
+            long count = 0;
+            for(int idx=0; idx<lengths.length; ++idx){
+                count += lengths[idx]/2;
+            }
+            return count;
+        }
+    }
+    
+    /**
+     * Set up loading the given file.
+     * 
+     * @param _file     File to load.
+     * @param _threads  Number of threads to parse the file with.
+     */
+    public GraphLoader(File _file, int _threads){
+        file = _file;
+        threads = Math.max(1, _threads);
+    }
+    
+    /**
+     * Load the graph.
+     * 
+     * @return              The graph.
+     * @throws IOException  If the file cannot be read or is not in the expected format.
+     */
+    public Graph load() throws IOException{
+        long start = System.nanoTime();
+        Graph graph;
+        if(GraphFile.isGraphFile(file)){
+            graph = mapped ? GraphFile.map(file, verify) : GraphFile.read(file, verify);
+            numberOfEdges = 0;
+            for(int vertex=0; vertex<graph.getNumberOfVertices(); ++vertex){
+                numberOfEdges += graph.getDegree(vertex);
+            }
+            numberOfEdges /= 2;
+        }
+        else if(mapped){
+            throw new IOException(file+" is an edge list; convert it with GraphConvert to map it");
+        }
+        else{
+            Edges edges = parse();
+            numberOfEdges = edges.count();
+            graph = new Graph(edges);
+        }
+        loadTime = System.nanoTime() - start;
+        return graph;
+    }
+    
+    /**
+     * Set whether the payload of a binary graph file is checked against its checksum when loaded. Off by default, as
+     * it means reading the whole file.
+     * 
+     * @param _verify   true to check the checksum.
+     */
+    public void setVerify(boolean _verify){
+        verify = _verify;
+    }
+    
+    /**
+     * Set whether a binary graph file is memory mapped and read in place, as a MappedGraph, rather than copied onto the
+     * heap. Off by default. Edge lists cannot be mapped.
+     * 
+     * @param _mapped   true to map the file.
+     */
+    public void setMapped(boolean _mapped){
+        mapped = _mapped;
+    }
+    
+    /**
+     * Get the number of edges loaded, counting every line of the file.
+     * 
+     * @return  Number of edges.
+     */
+    public long getNumberOfEdges(){
+        return numberOfEdges;
+    }
+    
+    /**
+     * Get the time taken by the last load.
+     * 
+     * @return  Load time in milliseconds.
+     */
+    public long getLoadTime(){
+        return loadTime / 1000000;
+    }
+    
+    /**
+     * Get the load throughput of the last load.
+     * 
+     * @return  Edges loaded per second.
+     */
+    public double getEdgesPerSecond(){
+        return loadTime == 0 ? 0 : numberOfEdges * 1e9 / loadTime;
+    }
+    
+    /**
+     * Describe the last load, for printing.
+     * 
+     * @return  Number of edges, time taken and throughput.
+     */
+    public String report(){
+        return String.format("Loaded %d edges in %d ms (%.0f edges/sec)", numberOfEdges, getLoadTime(),
+                getEdgesPerSecond());
+    }
+    
+    /**
+     * Parse the edges of the file.
+     * 
+     * @return              The header and the edges, one array per chunk.
+     * @throws IOException  If the file cannot be read or is not in the expected format.
+     */
+    Edges parse() throws IOException{
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try{
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            Edges edges = new Edges();
+            
+            //Header line
+            ByteBuffer head = ByteBuffer.allocate((int)Math.min(size, 256));
+            channel.read(head, 0);
+            long[] header = new long[2];
+            int headerLength = parseLine(head, 0, head.position(), header, channel, 0);
+            if(headerLength < 0 && head.position() == size){
+                headerLength = (int)size;
+            }
+            if(headerLength < 0 || header[0] < 0){
+                throw new IOException("Missing number of vertices in "+file);
+            }
+            edges.numberOfVertices = (int)header[0];
+            edges.declaredEdges = header[1];
+            
+            //Cut the rest into chunks that end at line boundaries
+            long body = size - headerLength;
+            int numberOfChunks = (int)Math.max(threads == 1 ? 1 : (long)threads*CHUNKS_PER_THREAD,
+                    (body + MAX_CHUNK - 1)/MAX_CHUNK);
+            ArrayList<Long> bounds = new ArrayList<Long>();
+            bounds.add((long)headerLength);
+            for(int idx=1; idx<numberOfChunks; ++idx){
+                long bound = nextLine(channel, headerLength + body*idx/numberOfChunks, size);
+                if(bound > bounds.get(bounds.size()-1)){
+                    bounds.add(bound);
+                }
+            }
+            if(size > bounds.get(bounds.size()-1)){
+                bounds.add(size);
+            }
+            numberOfChunks = bounds.size()-1;
+            edges.chunks = new int[numberOfChunks][];
+            edges.lengths = new int[numberOfChunks];
+            
+            //Parse the chunks
+            ArrayList<ChunkTask> tasks = new ArrayList<ChunkTask>();
+            for(int idx=0; idx<numberOfChunks; ++idx){
+                tasks.add(new ChunkTask(channel, edges, idx, bounds.get(idx), bounds.get(idx+1)));
+            }
+            if(threads == 1){
+                for(ChunkTask task : tasks){
+                    task.compute();
+                }
+            }
+            else{
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try{
+                    pool.invoke(new RecursiveAction(){
+                        @Override
+                        protected void compute(){
+                            ForkJoinTask.invokeAll(tasks);
+                        }
+                    });
+                }
+                finally{
+                    pool.shutdown();
+                }
+            }
+            for(ChunkTask task : tasks){
+                if(task.error != null){
+                    throw task.error;
+                }
+            }
+            return edges;
+        }
+        finally{
+            raf.close();
+        }
+    }
+    
+    /**
+     * Find the start of the first line that begins after the given position.
+     * 
+     * @param channel       The file.
+     * @param position      Position to search from.
+     * @param size          Size of the file.
+     * @return              Position just past the next newline, or the size of the file if there is none.
+     * @throws IOException  If the file cannot be read.
+     */
+    private static long nextLine(FileChannel channel, long position, long size) throws IOException{
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while(position < size){
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if(read <= 0){
+                break;
+            }
+            for(int idx=0; idx<read; ++idx){
+                if(buffer.get(idx) == '\n'){
+                    return position + idx + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+    
+    /**
+     * Find the number of the line the given position of the file is on. Reads the file up to the position, so it is
+     * only meant for error messages.
+     * 
+     * @param channel       The file.
+     * @param position      Position in the file.
+     * @return              Number of the line, counting from 1.
+     * @throws IOException  If the file cannot be read.
+     */
+    static long lineOf(FileChannel channel, long position) throws IOException{
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long line = 1;
+        long done = 0;
+        while(done < position){
+            buffer.clear();
+            buffer.limit((int)Math.min(buffer.capacity(), position - done));
+            int read = channel.read(buffer, done);
+            if(read <= 0){
+                break;
+            }
+            for(int idx=0; idx<read; ++idx){
+                if(buffer.get(idx) == '\n'){
+                    ++line;
+                }
+            }
+            done += read;
+        }
+        return line;
+    }
+    
+    /**
+     * Parse the first two numbers of the line starting at the given position.
+     * 
+     * @param buffer    Bytes to parse.
+     * @param position  Start of the line.
+     * @param limit     End of the bytes.
+     * @param numbers   Where to store the two numbers, -1 for a number the line does not have.
+     * @param channel   The file, to find the line in for error messages.
+     * @param offset    Position of the bytes in the file.
+     * @return          Start of the next line, or -1 if the line is not terminated before the limit.
+     * @throws IOException  If the line holds something other than numbers, or a number larger than an int holds.
+     */
+    private static int parseLine(ByteBuffer buffer, int position, int limit, long[] numbers, FileChannel channel,
+            long offset) throws IOException{
+        numbers[0] = -1;
+        numbers[1] = -1;
+        int found = 0;
+        while(position < limit){
+            byte b = buffer.get(position);
+            if(b == '\n'){
+                return position + 1;
+            }
+            if(b >= '0' && b <= '9'){
+                long value = 0;
+                while(position < limit && (b = buffer.get(position)) >= '0' && b <= '9'){
+                    value = value*10 + (b - '0');
+                    if(value > Integer.MAX_VALUE){
+                        throw new IOException("Number larger than "+Integer.MAX_VALUE+" on line "
+                                +lineOf(channel, offset+position)+" of graph file");
+                    }
+                    ++position;
+                }
+                if(found < 2){
+                    numbers[found++] = value;
+                }
+            }
+            else if(b == ' ' || b == '\t' || b == '\r'){
+                ++position;
+            }
+            else{
+                throw new IOException("Unexpected character '"+(char)b+"' on line "+lineOf(channel, offset+position)
+                        +" of graph file");
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Task that parses the edges of one chunk of the file.
+     */
+    static class ChunkTask extends RecursiveAction {
+        
+        FileChannel channel;    //  The file
+        Edges edges;            //  Where to store the edges
+        int index;              //  Index of the chunk
+        long start;             //  Start of the chunk in the file
+        long end;               //  End of the chunk in the file
+        IOException error;      //  Error found while parsing, if any
+        
+        /**
+         * Set up the task.
+         * 
+         * @param _channel  The file.
+         * @param _edges    Where to store the edges.
+         * @param _index    Index of the chunk.
+         * @param _start    Start of the chunk in the file.
+         * @param _end      End of the chunk in the file.
+         */
+        ChunkTask(FileChannel _channel, Edges _edges, int _index, long _start, long _end){
+            channel = _channel;
+            edges = _edges;
+            index = _index;
+            start = _start;
+            end = _end;
+        }
+        
+        @Override
+        protected void compute(){
+            try{
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                int limit = buffer.limit();
+                int[] pairs = new int[Math.max(16, limit/6)];
+                int count = 0;
+                long[] numbers = new long[2];
+                int position = 0;
+                while(position < limit){
+                    int next = parseLine(buffer, position, limit, numbers, channel, start);
+                    if(numbers[0] >= 0){
+                        if(numbers[1] < 0 || numbers[0] >= edges.numberOfVertices
+                                || numbers[1] >= edges.numberOfVertices){
+                            throw new IOException("Invalid edge on line "+lineOf(channel, start+position)
+                                    +" of graph file");
+                        }
+                        if(count+2 > pairs.length){
+                            pairs = Arrays.copyOf(pairs, pairs.length + (pairs.length >> 1) + 2);
+                        }
+                        pairs[count++] = (int)numbers[0];
+                        pairs[count++] = (int)numbers[1];
+                    }
+                    position = next < 0 ? limit : next;
+                }
+                edges.chunks[index] = pairs;
+                edges.lengths[index] = count;
+            }
+            catch(IOException e){
+                error = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Shrinks the graph as better cliques are found. A clique of more than k vertices lies entirely within the k-core, the
+ * vertices with core number at least k, so once a clique of size k is known every other vertex can be left out of the
+ * search for a larger one. The core numbers are computed once on the original graph; they do not change in the
+ * k-core, so every later reduction only needs to build the subgraph induced by the vertices that are left. On large
+ * sparse graphs most vertices have a small core number and drop out after the first few restarts.
+ * 
+ * A graph mapped from a file is only reduced once the reduction fits on the heap; until then the restarts run on the
+ * mapped graph itself.
+ * 
+ * Safe to share between threads: getGraph always returns a complete graph, and a thread that finds a better clique
+ * builds the next reduction while the others carry on with the previous one.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class GraphReduction {
+    
+    private Graph original;             //  Graph before any reduction
+    private CoreDecomposition cores;    //  Core numbers of the original graph, computed on the first report
+    private volatile Graph graph;       //  Current reduction, vertices labelled with their original numbers
+    private int bound;                  //  Size of the clique the current reduction was built for
+    
+    /**
+     * Set up reducing the given graph. Nothing is removed until the first clique is reported.
+     * 
+     * @param _original     Graph to reduce.
+     */
+    public GraphReduction(Graph _original){
+        original = _original;
+        graph = original;
+    }
+    
+    /**
+     * Get the current reduction of the graph. Use getLabel on it to find the original number of a vertex.
+     * 
+     * @return  Subgraph of the vertices that can still be in a larger clique than the best one reported.
+     */
+    public Graph getGraph(){
+        return graph;
+    }
+    
+    /**
+     * Get the core decomposition of the original graph, computing it the first time it is needed.
+     * 
+     * @return  Core numbers of the original graph.
+     */
+    public synchronized CoreDecomposition getCores(){
+        if(cores == null){
+            cores = new CoreDecomposition(original);
+        }
+        return cores;
+    }
+    
+    /**
+     * Report a clique of the given size, and reduce the graph to the vertices with core number at least that size if
+     * it leaves any vertex out. Reports of cliques no larger than one reported before return straight away.
+     * 
+     * @param size  Size of the clique found.
+     * @return      true if a larger clique may still exist, false if the graph has been reduced to nothing.
+     */
+    public synchronized boolean update(int size){
+        if(size > bound){
+            bound = size;
+            CoreDecomposition cores = getCores();
+            Graph current = graph;
+            int kept = 0;
+            for(int vertex=0; vertex<current.getNumberOfVertices(); ++vertex){
+                if(cores.getCoreNumber(current.getLabel(vertex)) >= size){
+                    ++kept;
+                }
+            }
+            if(kept < current.getNumberOfVertices()){
+                int[] vertices = new int[kept];
+                for(int vertex=0, idx=0; idx<kept; ++vertex){
+                    if(cores.getCoreNumber(current.getLabel(vertex)) >= size){
+                        vertices[idx++] = vertex;
+                    }
+                }
+                if(!current.isMapped() || fitsOnHeap(current, vertices)){
+                    graph = current.induce(vertices);
+                }
+            }
+        }
+        return graph.getNumberOfVertices() > 0;
+    }
+    
+    /**
+     * Whether the subgraph induced by the given vertices would fit in half of the heap that is free. A mapped graph is
+     * only reduced once it does, so that a graph mapped because it is too large for the heap is not copied onto it.
+     * 
+     * @param current   Graph to induce the subgraph of.
+     * @param vertices  Vertices of the subgraph.
+     * @return          true if the subgraph fits.
+     */
+    private static boolean fitsOnHeap(Graph current, int[] vertices){
+        //Bound the size from the degrees in the whole graph, as induce would store it
+        long ends = 0;
+        for(int idx=0; idx<vertices.length; ++idx){
+            ends += current.getDegree(vertices[idx]);
+        }
+        return fitsOnHeap(Graph.isSparse(vertices.length, ends/2) ? 4L*(vertices.length + 1 + ends)
+                : 8L*vertices.length*Graph.wordsFor(vertices.length));
+    }
+    
+    /**
+     * Whether the given number of bytes would fit in half of the heap that is free.
+     * 
+     * @param bytes     Number of bytes.
+     * @return          true if they fit.
+     */
+    static boolean fitsOnHeap(long bytes){
+        Runtime runtime = Runtime.getRuntime();
+        long free = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        return bytes <= free/2;
+    }
+}
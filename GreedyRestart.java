@@ -0,0 +1,171 @@
+import edu.rit.util.Random;
+
+/**
+ * One thread's random restarts: grows a clique greedily from a start vertex and, if asked to, improves it with a local
+ * search. MaxCliqueSeq, MaxCliqueSmp and MaxCliqueClu all restart through this class, so a change to the restart
+ * reaches every program. An instance is the workspace of one thread, holding the clique, the candidate vertices and the
+ * local search, so that a restart allocates nothing once the clique has grown to its largest size.
+ * 
+ * From the start vertex, the clique is grown by the candidate vertex of highest degree, ties broken at random, where
+ * the candidates are the vertices adjacent to every vertex of the clique so far. Candidates whose degree is too low to
+ * be in a larger clique are dropped as they are met, since the degree needed only grows. The restart ends when no
+ * candidate is left.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class GreedyRestart {
+    
+    private Clique clique;          //  Clique of the last restart
+    private int[] candidates;       //  Vertices that can still extend the clique
+    private LocalSearch local;      //  Improves the clique, created the first time it is asked for
+    private int numberOfVertices;   //  Largest number of vertices of a graph to restart on
+    private int maxDegree;          //  Largest degree of any vertex of a graph to restart on
+    private Graph graph;            //  Graph of the last restart
+    private int steps;              //  Vertices added by the greedy construction of the last restart
+    private long probes;            //  Candidate vertices checked by the last restart
+    private boolean deterministic;  //  Whether the last restart drew no random numbers after the start
+    
+    /**
+     * Set up the workspace for graphs of at most the given size.
+     * 
+     * @param _numberOfVertices     Number of vertices of the original graph.
+     * @param _maxDegree            Largest degree of any vertex of the original graph.
+     */
+    public GreedyRestart(int _numberOfVertices, int _maxDegree){
+        numberOfVertices = _numberOfVertices;
+        maxDegree = _maxDegree;
+        clique = new Clique(numberOfVertices);
+        candidates = new int[maxDegree];
+    }
+    
+    /**
+     * Derive the seed of a thread's pseudorandom number generator, the same way in every program.
+     * 
+     * @param seed      Seed given to the program.
+     * @param worker    Rank of the worker in a cluster job, 0 otherwise.
+     * @param rank      Rank of the thread.
+     * @return          Seed of the thread.
+     */
+    public static long seed(long seed, int worker, int rank){
+        return seed + 1000L*worker + rank;
+    }
+    
+    /**
+     * Do one restart.
+     * 
+     * @param _graph    Graph to restart on, possibly reduced. No larger than given to the constructor.
+     * @param start     Vertex of the graph to start from.
+     * @param prng      Pseudorandom number generator of the thread.
+     * @param improve   Number of local search moves to improve the clique with, 0 for none.
+     * @return          The clique found, numbered as in the graph. Reused by the next restart.
+     */
+    public Clique run(Graph _graph, int start, Random prng, int improve){
+        graph = _graph;
+        probes = 0;
+        deterministic = true;
+        clique.reset();
+        
+        //Add vertex into consideration. Its neighbours are the candidates to grow the clique with.
+        int requiredDegree = 1;
+        clique.add(start);
+        int numberOfCandidates = graph.getNeighbours(start, candidates);
+        
+        while(true){
+            probes += numberOfCandidates;
+            int successiveVertex = -1;
+            int successiveVertexDegree = -1;
+            
+            //Explore the candidates, which are already known to form a clique with the clique so far. Candidates whose
+            //degree is too low can never qualify again since the required degree only grows, so they are dropped.
+            int kept = 0;
+            for(int cidx=0; cidx<numberOfCandidates; ++cidx){
+                int neigh = candidates[cidx];
+                int degree = graph.getDegree(neigh);
+                if(degree >= requiredDegree && !clique.isVertexInClique(neigh)){
+                    candidates[kept++] = neigh;
+                    
+                    //Prefer the candidate of highest degree, as it has the most potential to form a bigger clique
+                    if(successiveVertex == -1 || degree > successiveVertexDegree){
+                        successiveVertex = neigh;
+                        successiveVertexDegree = degree;
+                    }
+                    else if(degree == successiveVertexDegree){
+                        deterministic = false;
+                        if(prng.nextBoolean()){
+                            successiveVertex = neigh;
+                        }
+                    }
+                }
+            }
+            numberOfCandidates = kept;
+            if(successiveVertex == -1){
+                break;
+            }
+            
+            //Grow the clique. Only the candidates that are also neighbours of the added vertex can extend it further.
+            clique.add(successiveVertex);
+            ++requiredDegree;
+            probes += numberOfCandidates;
+            numberOfCandidates = graph.retainNeighbours(successiveVertex, candidates, numberOfCandidates);
+        }
+        steps = clique.getSize();
+        
+        //Carry on from the maximal clique with a local search if asked to
+        if(improve > 0){
+            if(local == null){
+                local = new LocalSearch(numberOfVertices, maxDegree);
+            }
+            local.improve(graph, clique, prng, improve);
+            deterministic = false;
+        }
+        return clique;
+    }
+    
+    /**
+     * Get the clique of the last restart.
+     * 
+     * @return  The clique, numbered as in the graph of the restart.
+     */
+    public Clique getClique(){
+        return clique;
+    }
+    
+    /**
+     * Copy the clique of the last restart into another, numbering its vertices as in the original graph.
+     * 
+     * @param target    Clique to copy into.
+     */
+    public void copyTo(Clique target){
+        target.reset();
+        for(int idx=0; idx<clique.getSize(); ++idx){
+            target.add(graph.getLabel(clique.getVertex(idx)));
+        }
+    }
+    
+    /**
+     * Get the number of vertices the greedy construction of the last restart added, before any local search.
+     * 
+     * @return  Number of vertices.
+     */
+    public int getSteps(){
+        return steps;
+    }
+    
+    /**
+     * Get the number of candidate vertices the last restart checked.
+     * 
+     * @return  Number of candidates.
+     */
+    public long getProbes(){
+        return probes;
+    }
+    
+    /**
+     * Check whether the last restart would find the same clique again from the same start vertex.
+     * 
+     * @return  true if it broke no tie at random and did no local search.
+     */
+    public boolean isDeterministic(){
+        return deterministic;
+    }
+}
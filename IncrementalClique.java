@@ -0,0 +1,305 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.Arrays;
+
+/**
+ * Keeps a maximum clique of a MutableGraph up to date as edges are added and removed, without searching the whole
+ * graph again.
+ * 
+ * Adding an edge can only create cliques that contain it, so a clique larger than the current one must consist of the
+ * two ends and a clique of one vertex fewer than the current one among their common neighbours. Only the subgraph of
+ * those common neighbours is searched, and only for such a clique.
+ * 
+ * Removing an edge cannot create a larger clique, and leaves the current one a clique unless both ends are in it. If
+ * they are, one end is dropped and a vertex adjacent to all the others is looked for to take its place, which keeps
+ * the size. Only if neither end can be replaced is the whole graph searched, for a clique of the old size, starting
+ * from the one vertex smaller clique that is left.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class IncrementalClique {
+    
+    /**
+     * Options the program takes after its positional arguments.
+     */
+    static final String[] OPTIONS = {"threads", "verify"};
+    
+    private MutableGraph graph;     //  The graph
+    private int threads;            //  Number of threads for a search of the whole graph
+    private int[] clique;           //  Vertices of the maximum clique, in ascending order
+    private boolean[] inClique;     //  Whether every vertex(index) is in the clique
+    private int[] buffer;           //  Buffer for neighbours, grown as needed
+    
+    /**
+     * Find a maximum clique of the graph to start from, with random restarts and BranchAndBound.
+     * 
+     * @param _graph    The graph, to be changed only through this object from now on.
+     * @param _threads  Number of threads for searches of the whole graph.
+     */
+    public IncrementalClique(MutableGraph _graph, int _threads){
+        graph = _graph;
+        threads = _threads;
+        inClique = new boolean[graph.getNumberOfVertices()];
+        buffer = new int[16];
+        Graph whole = graph.snapshot();
+        CoreDecomposition cores = new CoreDecomposition(whole);
+        CliqueEngine engine = new CliqueEngine(whole);
+        engine.setThreads(threads);
+        Clique best = engine.solve();
+        set(new BranchAndBound(whole, cores).solve(best, threads).getVertices());
+    }
+    
+    /**
+     * Get the maximum clique.
+     * 
+     * @return  Its vertices in ascending order. Not to be modified.
+     */
+    public int[] getClique(){
+        return clique;
+    }
+    
+    /**
+     * Get the size of the maximum clique.
+     * 
+     * @return  Number of vertices.
+     */
+    public int getSize(){
+        return clique.length;
+    }
+    
+    /**
+     * Add an edge and look for a larger clique containing it.
+     * 
+     * @param vertex1   First vertex.
+     * @param vertex2   Second vertex.
+     * @return          true if the maximum clique grew.
+     */
+    public boolean addEdge(int vertex1, int vertex2){
+        if(!graph.addEdge(vertex1, vertex2)){
+            return false;
+        }
+        
+        //The first edge makes the first clique of two vertices
+        int size = clique.length;
+        if(size < 2){
+            set(new int[]{vertex1, vertex2});
+            return true;
+        }
+        
+        //A larger clique has the two ends and more than size-2 of their common neighbours, every one of which must
+        //have at least size neighbours of its own
+        grow(Math.min(graph.getDegree(vertex1), graph.getDegree(vertex2)));
+        int count = graph.getCommonNeighbours(vertex1, vertex2, buffer);
+        int kept = 0;
+        for(int idx=0; idx<count; ++idx){
+            if(graph.getDegree(buffer[idx]) >= size){
+                buffer[kept++] = buffer[idx];
+            }
+        }
+        if(kept <= size-2){
+            return false;
+        }
+        Graph sub = graph.induce(Arrays.copyOf(buffer, kept));
+        Clique found = new BranchAndBound(sub).solveLarger(size-2, 1);
+        if(found.getSize() == 0){
+            return false;
+        }
+        int[] vertices = new int[found.getSize()+2];
+        for(int idx=0; idx<found.getSize(); ++idx){
+            vertices[idx] = sub.getLabel(found.getVertex(idx));
+        }
+        vertices[found.getSize()] = vertex1;
+        vertices[found.getSize()+1] = vertex2;
+        set(vertices);
+        return true;
+    }
+    
+    /**
+     * Remove an edge and repair the maximum clique if the edge was in it.
+     * 
+     * @param vertex1   First vertex.
+     * @param vertex2   Second vertex.
+     * @return          true if the maximum clique shrank.
+     */
+    public boolean removeEdge(int vertex1, int vertex2){
+        if(!graph.removeEdge(vertex1, vertex2) || !inClique[vertex1] || !inClique[vertex2]){
+            return false;
+        }
+        
+        //Put another vertex in place of either end
+        if(replace(vertex1) || replace(vertex2)){
+            return false;
+        }
+        
+        //No clique of the old size is left near the broken one; look for one anywhere else
+        int[] rest = without(vertex2);
+        Graph whole = graph.snapshot();
+        Clique found = new BranchAndBound(whole).solveLarger(rest.length, threads);
+        set(found.getSize() > 0 ? found.getVertices() : rest);
+        return found.getSize() == 0;
+    }
+    
+    /**
+     * Replace a vertex of the clique by another vertex adjacent to all the others, if there is one.
+     * 
+     * @param vertex    Vertex of the clique to replace.
+     * @return          true if it was replaced.
+     */
+    private boolean replace(int vertex){
+        int[] rest = without(vertex);
+        if(rest.length == 0){
+            return false;
+        }
+        
+        //The candidates are the neighbours of the clique vertex of smallest degree
+        int pivot = rest[0];
+        for(int idx=1; idx<rest.length; ++idx){
+            if(graph.getDegree(rest[idx]) < graph.getDegree(pivot)){
+                pivot = rest[idx];
+            }
+        }
+        grow(graph.getDegree(pivot));
+        int count = graph.getNeighbours(pivot, buffer);
+        for(int nidx=0; nidx<count; ++nidx){
+            int candidate = buffer[nidx];
+            if(inClique[candidate] || graph.getDegree(candidate) < rest.length){
+                continue;
+            }
+            boolean adjacent = true;
+            for(int idx=0; idx<rest.length && adjacent; ++idx){
+                adjacent = rest[idx] == pivot || graph.isConnected(candidate, rest[idx]);
+            }
+            if(adjacent){
+                int[] vertices = Arrays.copyOf(rest, rest.length+1);
+                vertices[rest.length] = candidate;
+                set(vertices);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Get the vertices of the clique but one.
+     * 
+     * @param vertex    Vertex of the clique to leave out.
+     * @return          The other vertices, in ascending order.
+     */
+    private int[] without(int vertex){
+        int[] rest = new int[clique.length-1];
+        int count = 0;
+        for(int idx=0; idx<clique.length; ++idx){
+            if(clique[idx] != vertex){
+                rest[count++] = clique[idx];
+            }
+        }
+        return rest;
+    }
+    
+    /**
+     * Make the given vertices the maximum clique.
+     * 
+     * @param vertices  Vertices of the clique, in any order.
+     */
+    private void set(int[] vertices){
+        if(clique != null){
+            for(int idx=0; idx<clique.length; ++idx){
+                inClique[clique[idx]] = false;
+            }
+        }
+        clique = vertices.clone();
+        Arrays.sort(clique);
+        for(int idx=0; idx<clique.length; ++idx){
+            inClique[clique[idx]] = true;
+        }
+    }
+    
+    /**
+     * Make sure the neighbour buffer holds at least the given number of vertices.
+     * 
+     * @param length    Number of vertices.
+     */
+    private void grow(int length){
+        if(buffer.length < length){
+            buffer = new int[Math.max(length, 2*buffer.length)];
+        }
+    }
+    
+    /**
+     * Program execution begins here. Finds a maximum clique of the graph, then applies the changes in the changes file
+     * one at a time and prints the size of the maximum clique after each.
+     * 
+     * Usage: java IncrementalClique <filename> <changes> [threads=<n>] [verify=true]
+     * <filename>           =   name of the file that contains the graph, as an edge list or a binary graph file.
+     * <changes>            =   file of edge changes, one per line: "+ u v" adds the edge between u and v, "- u v"
+     *                          removes it.
+     * threads=<n>          =   number of threads for the searches of the whole graph, all cores by default(optional)
+     * 
+     * @param args  The filename, changes file and options.
+     */
+    public static void main(String[] args) throws Exception {
+        
+        //Validate
+        Options options;
+        try{
+            if(args.length < 2){
+                throw new IllegalArgumentException("Missing arguments");
+            }
+            options = new Options(args, 2, OPTIONS);
+        }
+        catch(IllegalArgumentException e){
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java IncrementalClique <filename> <changes> [threads=<n>] [verify=true]");
+            System.exit(1);
+            return;
+        }
+        
+        //Generate graph from the file, and find its maximum clique once
+        int threads = options.getInt("threads", Runtime.getRuntime().availableProcessors());
+        GraphLoader loader = new GraphLoader(new File(args[0]), threads);
+        loader.setVerify(options.getBoolean("verify", false));
+        MutableGraph graph = new MutableGraph(loader.load());
+        System.err.println(loader.report());
+        long start = System.nanoTime();
+        IncrementalClique incremental = new IncrementalClique(graph, threads);
+        System.out.println("Size of max clique is: "+incremental.getSize());
+        System.err.println("Solved in "+(System.nanoTime()-start)/1000000+" ms");
+        
+        //Apply the changes
+        BufferedReader in = new BufferedReader(new FileReader(args[1]));
+        String line;
+        int changes = 0;
+        start = System.nanoTime();
+        while((line = in.readLine()) != null){
+            String[] words = line.trim().split("\\s+");
+            if(words.length != 3 || !(words[0].equals("+") || words[0].equals("-"))){
+                continue;
+            }
+            int vertex1 = Integer.parseInt(words[1]);
+            int vertex2 = Integer.parseInt(words[2]);
+            if(vertex1 < 0 || vertex2 < 0 || vertex1 >= graph.getNumberOfVertices()
+                    || vertex2 >= graph.getNumberOfVertices()){
+                throw new IllegalArgumentException("Invalid edge "+line);
+            }
+            if(words[0].equals("+")){
+                incremental.addEdge(vertex1, vertex2);
+            }
+            else{
+                incremental.removeEdge(vertex1, vertex2);
+            }
+            System.out.println(line.trim()+" : "+incremental.getSize());
+            ++changes;
+        }
+        in.close();
+        System.err.println(changes+" changes in "+(System.nanoTime()-start)/1000000+" ms");
+        
+        //Print the max clique after all changes.
+        int[] vertices = incremental.getClique();
+        System.out.println("Vertices in the clique are as follows:");
+        for(int idx=0; idx<vertices.length; ++idx){
+            System.out.print(vertices[idx]+" ");
+        }
+        System.out.println("\nSize of max clique is: "+vertices.length);
+    }
+}
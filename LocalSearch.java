@@ -0,0 +1,261 @@
+import edu.rit.util.Random;
+
+/**
+ * Improves a clique by local search, in the style of dynamic local search(DLS-MC) of Pullan and Hoos. Starting from
+ * the clique, the search alternates two phases. In the expansion phase it adds vertices that are adjacent to every
+ * vertex of the clique. When there are none left, the plateau phase swaps a vertex adjacent to all but one vertex of
+ * the clique for that one vertex, which keeps the size but moves the clique somewhere else, until a vertex can be added
+ * again or every vertex the plateau started with has been swapped out. Vertices removed during a plateau may not be
+ * swapped back in during it. Every vertex gets a penalty each time it is in the clique at the end of a plateau, and the
+ * search prefers vertices with low penalties, which drives it away from the cliques it has already seen; penalties wear
+ * off by one every PENALTY_DELAY plateaus. After a plateau the clique is cut back to the vertex added last and the search
+ * starts over from there. The largest clique seen is kept.
+ * 
+ * The vertices that can be added or swapped in are found without looking at the whole graph: for every vertex the
+ * search counts how many vertices of the clique it is adjacent to, and a vertex adjacent to all of the clique, or all
+ * but one, must be a neighbour of one of the two clique vertices of least degree. All state is kept in int arrays
+ * that are allocated once, so one instance can improve any number of cliques on one thread.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class LocalSearch {
+    
+    /**
+     * Number of plateaus after which all penalties drop by one.
+     */
+    static final int PENALTY_DELAY = 2;
+    
+    private Graph graph;            //  Graph being searched
+    private Random prng;            //  Breaks ties between vertices of equal penalty
+    private int[] members;          //  Vertices of the current clique
+    private int size;               //  Number of vertices in the current clique
+    private int[] position;         //  Index of every vertex in members, -1 if not in the clique
+    private int[] adjacent;         //  Number of clique vertices every vertex is adjacent to
+    private int[] penalty;          //  Penalty of every vertex
+    private int[] penalised;        //  Vertices with a penalty above zero
+    private int numberPenalised;    //  Number of vertices in penalised
+    private int[] removed;          //  Plateau in which every vertex was last removed from the clique
+    private int[] seen;             //  Scan in which every vertex was last looked at
+    private int[] neighbours;       //  Scratch space for neighbour lists
+    private int[] best;             //  Vertices of the largest clique seen
+    private int bestSize;           //  Number of vertices in best
+    private int plateau;            //  Number of plateaus so far
+    private int scan;               //  Number of scans for candidates so far
+    private int lastAdded;          //  Vertex added to the clique last
+    
+    /**
+     * Set up a search for graphs of at most the given size.
+     * 
+     * @param numberOfVertices  Largest number of vertices of a graph to search.
+     * @param maxDegree         Largest degree of any vertex of a graph to search.
+     */
+    public LocalSearch(int numberOfVertices, int maxDegree){
+        members = new int[maxDegree+1];
+        position = new int[numberOfVertices];
+        adjacent = new int[numberOfVertices];
+        penalty = new int[numberOfVertices];
+        penalised = new int[numberOfVertices];
+        removed = new int[numberOfVertices];
+        seen = new int[numberOfVertices];
+        neighbours = new int[maxDegree];
+        best = new int[maxDegree+1];
+        for(int vertex=0; vertex<numberOfVertices; ++vertex){
+            position[vertex] = -1;
+        }
+    }
+    
+    /**
+     * Improve a clique. Replaces the clique with the largest clique seen if that is larger.
+     * 
+     * @param _graph    Graph the clique is in, no larger than given to the constructor.
+     * @param clique    The clique, numbered as in the graph. Must not be empty.
+     * @param _prng     Pseudorandom number generator.
+     * @param steps     Number of vertices to add or swap in before giving up.
+     * @return          Size of the clique afterwards.
+     */
+    public int improve(Graph _graph, Clique clique, Random _prng, int steps){
+        graph = _graph;
+        prng = _prng;
+        for(int idx=0; idx<clique.getSize(); ++idx){
+            add(clique.getVertex(idx));
+        }
+        bestSize = 0;
+        record();
+        
+        while(steps > 0){
+            //Expansion phase
+            int vertex;
+            while(steps > 0 && (vertex = select(size)) != -1){
+                add(vertex);
+                --steps;
+            }
+            record();
+            
+            //Plateau phase, until a vertex can be added or the clique has moved off all of its vertices
+            ++plateau;
+            int left = size;
+            for(int idx=0; idx<size; ++idx){
+                removed[members[idx]] = -plateau;
+            }
+            //Kept from the last look for a vertex to add, -1 if there is none
+            int grow = steps > 0 ? select(size) : -1;
+            while(grow == -1 && left > 0 && size >= 2 && steps > 0){
+                vertex = select(size-1);
+                if(vertex == -1){
+                    break;
+                }
+                int out = nonNeighbour(vertex);
+                if(removed[out] == -plateau){
+                    --left;
+                }
+                remove(out);
+                removed[out] = plateau;
+                add(vertex);
+                --steps;
+                grow = steps > 0 ? select(size) : -1;
+            }
+            if(grow != -1){
+                continue;
+            }
+            
+            //Penalise the clique, wear penalties off and start over from the vertex added last
+            for(int idx=0; idx<size; ++idx){
+                if(penalty[members[idx]]++ == 0){
+                    penalised[numberPenalised++] = members[idx];
+                }
+            }
+            if(plateau % PENALTY_DELAY == 0){
+                int kept = 0;
+                for(int idx=0; idx<numberPenalised; ++idx){
+                    if(--penalty[penalised[idx]] > 0){
+                        penalised[kept++] = penalised[idx];
+                    }
+                }
+                numberPenalised = kept;
+            }
+            int keep = lastAdded;
+            while(size > 0){
+                remove(members[size-1]);
+            }
+            add(keep);
+            --steps;
+        }
+        
+        //Leave the arrays clean for the next clique
+        while(size > 0){
+            remove(members[size-1]);
+        }
+        for(int idx=0; idx<numberPenalised; ++idx){
+            penalty[penalised[idx]] = 0;
+        }
+        numberPenalised = 0;
+        if(bestSize > clique.getSize()){
+            clique.reset();
+            for(int idx=0; idx<bestSize; ++idx){
+                clique.add(best[idx]);
+            }
+        }
+        return clique.getSize();
+    }
+    
+    /**
+     * Pick a vertex outside the clique that is adjacent to the given number of clique vertices and was not removed
+     * during the current plateau, the one of least penalty, ties broken at random.
+     * 
+     * @param count     size to find vertices that can be added, size-1 to find vertices that can be swapped in.
+     * @return          The vertex, -1 if there is none.
+     */
+    private int select(int count){
+        //A vertex adjacent to all clique vertices but one is adjacent to at least one of any two
+        int first = -1;
+        int second = -1;
+        for(int idx=0; idx<size; ++idx){
+            int member = members[idx];
+            if(first == -1 || graph.getDegree(member) < graph.getDegree(first)){
+                second = first;
+                first = member;
+            }
+            else if(second == -1 || graph.getDegree(member) < graph.getDegree(second)){
+                second = member;
+            }
+        }
+        ++scan;
+        int chosen = -1;
+        int ties = 0;
+        for(int pass=0; pass<(count == size ? 1 : 2); ++pass){
+            int n = graph.getNeighbours(pass == 0 ? first : second, neighbours);
+            for(int idx=0; idx<n; ++idx){
+                int vertex = neighbours[idx];
+                if(seen[vertex] == scan || position[vertex] != -1 || adjacent[vertex] != count
+                        || removed[vertex] == plateau){
+                    continue;
+                }
+                seen[vertex] = scan;
+                if(chosen == -1 || penalty[vertex] < penalty[chosen]){
+                    chosen = vertex;
+                    ties = 1;
+                }
+                else if(penalty[vertex] == penalty[chosen] && prng.nextInt(++ties) == 0){
+                    chosen = vertex;
+                }
+            }
+        }
+        return chosen;
+    }
+    
+    /**
+     * Find the clique vertex a vertex is not adjacent to.
+     * 
+     * @param vertex    A vertex adjacent to all clique vertices but one.
+     * @return          The one clique vertex it is not adjacent to.
+     */
+    private int nonNeighbour(int vertex){
+        for(int idx=0; idx<size; ++idx){
+            if(!graph.isConnected(vertex, members[idx])){
+                return members[idx];
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Add a vertex to the clique.
+     * 
+     * @param vertex    The vertex.
+     */
+    private void add(int vertex){
+        position[vertex] = size;
+        members[size++] = vertex;
+        lastAdded = vertex;
+        int n = graph.getNeighbours(vertex, neighbours);
+        for(int idx=0; idx<n; ++idx){
+            ++adjacent[neighbours[idx]];
+        }
+    }
+    
+    /**
+     * Remove a vertex from the clique.
+     * 
+     * @param vertex    The vertex.
+     */
+    private void remove(int vertex){
+        int last = members[--size];
+        members[position[vertex]] = last;
+        position[last] = position[vertex];
+        position[vertex] = -1;
+        int n = graph.getNeighbours(vertex, neighbours);
+        for(int idx=0; idx<n; ++idx){
+            --adjacent[neighbours[idx]];
+        }
+    }
+    
+    /**
+     * Keep the current clique if it is the largest seen.
+     */
+    private void record(){
+        if(size > bestSize){
+            System.arraycopy(members, 0, best, 0, size);
+            bestSize = size;
+        }
+    }
+}
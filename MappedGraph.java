@@ -0,0 +1,244 @@
+import edu.rit.io.OutStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Graph read in place from a binary graph file instead of copied onto the heap. The adjacency matrix of a dense graph,
+ * or the neighbour lists of a sparse one, stay in the file and are memory mapped read only, so they take no heap and
+ * the garbage collector never sees them; only the degrees and the offsets of the neighbour lists, O(n) ints, are read
+ * into arrays. A graph too large for the heap can then be searched with a small one, and pages of it the search does
+ * not touch are never read at all.
+ * 
+ * The mappings are only read, never moved or written, so any number of threads can share one MappedGraph without
+ * locking, and processes on the same machine that map the same file share one copy of it in the page cache.
+ * 
+ * A single mapping holds at most 1 GB, so the file is mapped in windows. Every window of the matrix holds a power of 2
+ * rows, so the window of a row and the row within it are a shift and a mask of the vertex. Neighbour lists are mapped
+ * in windows of 2^28 ints and a list may cross from one window into the next. Every access is an absolute get on a
+ * direct buffer, whose bounds check the JIT compiler hoists out of the loops over a row or a list.
+ * 
+ * A MappedGraph cannot be sent through tuple space; MaxCliqueClu sends its workers the graph in memory.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class MappedGraph extends Graph {
+    
+    /**
+     * Number of ints of neighbour lists in a window, a power of 2: 2^28 ints, 1 GB.
+     */
+    static final int LIST_SHIFT = 28;
+    static final int LIST_MASK = (1 << LIST_SHIFT) - 1;
+    
+    private int words;              //  Number of longs in a row of the adjacency matrix
+    private int rowShift;           //  Log 2 of the number of rows in a window of the matrix
+    private int rowMask;            //  Rows in a window of the matrix, minus one
+    private LongBuffer[] rows;      //  Windows of the adjacency matrix(dense graphs only)
+    private int[] offset;           //  Start of every vertex's neighbours in the lists(sparse graphs only)
+    private IntBuffer[] lists;      //  Windows of the sorted neighbours of all vertices(sparse graphs only)
+    
+    /**
+     * Map the adjacency matrix of a dense graph.
+     * 
+     * @param _degree       Degree of every vertex.
+     * @param channel       The binary graph file, open for reading. May be closed once this returns.
+     * @param position      Position of the matrix in the file.
+     * @throws IOException  If the file cannot be mapped.
+     */
+    MappedGraph(int[] _degree, FileChannel channel, long position) throws IOException{
+        super(_degree, null, null, null);
+        int numberOfVertices = _degree.length;
+        words = wordsFor(numberOfVertices);
+        
+        //As many rows per window as fit in WINDOW bytes, rounded down to a power of 2
+        long rowBytes = 8L*Math.max(1, words);
+        rowShift = 63 - Long.numberOfLeadingZeros(Math.max(1, GraphFile.WINDOW/rowBytes));
+        rowMask = (1 << rowShift) - 1;
+        rows = new LongBuffer[(numberOfVertices + rowMask) >>> rowShift];
+        for(int window=0; window<rows.length; ++window){
+            long first = (long)window << rowShift;
+            long count = Math.min(numberOfVertices - first, 1L << rowShift);
+            rows[window] = channel.map(FileChannel.MapMode.READ_ONLY, position + first*rowBytes, count*rowBytes)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        }
+    }
+    
+    /**
+     * Map the neighbour lists of a sparse graph.
+     * 
+     * @param _degree       Degree of every vertex.
+     * @param _offset       Start of every vertex's neighbours in the lists, n+1 long.
+     * @param channel       The binary graph file, open for reading. May be closed once this returns.
+     * @param position      Position of the neighbour lists in the file.
+     * @throws IOException  If the file cannot be mapped.
+     */
+    MappedGraph(int[] _degree, int[] _offset, FileChannel channel, long position) throws IOException{
+        super(_degree, null, null, null);
+        offset = _offset;
+        int total = offset[_degree.length];
+        lists = new IntBuffer[(int)(((long)total + LIST_MASK) >>> LIST_SHIFT)];
+        for(int window=0; window<lists.length; ++window){
+            long first = (long)window << LIST_SHIFT;
+            long count = Math.min(total - first, 1L << LIST_SHIFT);
+            lists[window] = channel.map(FileChannel.MapMode.READ_ONLY, position + 4*first, 4*count)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+    }
+    
+    @Override
+    public boolean isSparse(){
+        return lists != null;
+    }
+    
+    @Override
+    public boolean isMapped(){
+        return true;
+    }
+    
+    @Override
+    public int getNeighbours(int vertex, int[] neighbours){
+        int count = 0;
+        if(lists != null){
+            int position = offset[vertex];
+            int end = offset[vertex+1];
+            while(position < end){
+                //Copy up to the end of the list or of the window it is in, whichever comes first
+                IntBuffer list = lists[position >>> LIST_SHIFT];
+                int from = position & LIST_MASK;
+                int to = from + Math.min(end - position, LIST_MASK - from + 1);
+                for(int idx=from; idx<to; ++idx){
+                    neighbours[count++] = list.get(idx);
+                }
+                position += to - from;
+            }
+            return count;
+        }
+        LongBuffer row = rows[vertex >>> rowShift];
+        int base = (vertex & rowMask)*words;
+        for(int word=0; word<words; ++word){
+            long bits = row.get(base + word);
+            while(bits != 0){
+                neighbours[count++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return count;
+    }
+    
+    @Override
+    public int retainNeighbours(int vertex, int[] candidates, int count){
+        int kept = 0;
+        if(lists != null){
+            int from = offset[vertex];
+            int end = offset[vertex+1];
+            for(int idx=0; idx<count && from<end; ++idx){
+                int pos = search(from, end, candidates[idx]);
+                if(pos >= 0){
+                    candidates[kept++] = candidates[idx];
+                    from = pos+1;
+                }
+                else{
+                    from = -pos-1;
+                }
+            }
+            return kept;
+        }
+        LongBuffer row = rows[vertex >>> rowShift];
+        int base = (vertex & rowMask)*words;
+        for(int idx=0; idx<count; ++idx){
+            int candidate = candidates[idx];
+            if((row.get(base + (candidate >>> 6)) & (1L << candidate)) != 0){
+                candidates[kept++] = candidate;
+            }
+        }
+        return kept;
+    }
+    
+    @Override
+    public int nextNeighbour(int vertex, int from){
+        if(from >= getNumberOfVertices()){
+            return -1;
+        }
+        if(lists != null){
+            int idx = search(offset[vertex], offset[vertex+1], from);
+            if(idx < 0){
+                idx = -idx-1;
+            }
+            return idx < offset[vertex+1] ? neighbour(idx) : -1;
+        }
+        LongBuffer row = rows[vertex >>> rowShift];
+        int base = (vertex & rowMask)*words;
+        int word = from >>> 6;
+        long bits = row.get(base + word) & (-1L << from);
+        while(true){
+            if(bits != 0){
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if(++word == words){
+                return -1;
+            }
+            bits = row.get(base + word);
+        }
+    }
+    
+    @Override
+    public boolean isConnected(int _vertex1, int _vertex2){
+        if(lists != null){
+            if(offset[_vertex1+1] - offset[_vertex1] > offset[_vertex2+1] - offset[_vertex2]){
+                return search(offset[_vertex2], offset[_vertex2+1], _vertex1) >= 0;
+            }
+            return search(offset[_vertex1], offset[_vertex1+1], _vertex2) >= 0;
+        }
+        return (rows[_vertex1 >>> rowShift].get((_vertex1 & rowMask)*words + (_vertex2 >>> 6)) & (1L << _vertex2))
+                != 0;
+    }
+    
+    /**
+     * Get the neighbour at a position of the lists.
+     * 
+     * @param position  Position in the lists of all vertices.
+     * @return          The neighbour there.
+     */
+    private int neighbour(int position){
+        return lists[position >>> LIST_SHIFT].get(position & LIST_MASK);
+    }
+    
+    /**
+     * Binary search part of the neighbour lists, as Arrays.binarySearch does an array.
+     * 
+     * @param from  First position to search.
+     * @param end   Position after the last to search.
+     * @param key   Vertex to search for.
+     * @return      Position of the vertex if it is there, otherwise -(position it would be inserted at)-1.
+     */
+    private int search(int from, int end, int key){
+        int low = from;
+        int high = end - 1;
+        while(low <= high){
+            int mid = (low + high) >>> 1;
+            int value = neighbour(mid);
+            if(value < key){
+                low = mid + 1;
+            }
+            else if(value > key){
+                high = mid - 1;
+            }
+            else{
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+    
+    /**
+     * Not supported: the graph is shared through its file, not sent through tuple space.
+     * 
+     * @param out   Not used.
+     */
+    @Override
+    public void writeOut(OutStream out){
+        throw new UnsupportedOperationException("A mapped graph cannot be sent through tuple space");
+    }
+}
@@ -2,28 +2,56 @@ import edu.rit.pj2.Job;
 import edu.rit.pj2.Loop;
 import edu.rit.pj2.Task;
 import edu.rit.pj2.TerminateException;
+import edu.rit.pj2.TupleListener;
 import edu.rit.util.Random;
 import java.io.File;
 import java.io.FileReader;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Cluster version of the program that finds the maximum clique, given a graph. It builds the graph from a given
  * graph input file, does a specified number of random restarts and finds a clique of maximum size among those random
  * restarts.
  * 
- * Usage: java pj2 threads=<numOfThreads> workers=<numOfWorkers> jar=<nameOfJar> MaxCliqueClu <filename> <seed> <numberOfIterations>
+ * Workers publish every clique that beats the best published so far to tuple space as soon as they find it, and
+ * follow what the others publish: restarts from vertices that cannot be in a larger clique are skipped, the graph is
+ * shrunk by the best clique of any worker, and a target size or the colouring bound reached by one worker stops them
+ * all. Every published clique is reported on the console, so long runs show their best clique so far.
+ * 
+ * Usage: java pj2 threads=<numOfThreads> workers=<numOfWorkers> jar=<nameOfJar> MaxCliqueClu <filename> <seed> <numberOfIterations> [exact=true] [verify=true] [reduce=false] [time=<seconds>] [target=<size>] [checkpoint=<file> [resume=true]] [improve=<moves>] [starts=adaptive] [progress=<seconds>] [metrics=<file>]
  * <numOfThreads>       =   Number of threads among which the iterations are distributed(optional)
  * <numOfWorkers>       =   Number of workers to be involved in the computation(optional)
- * <filename>           =   name of the file that contains the graph.
+ * <filename>           =   name of the file that contains the graph, as an edge list or a binary graph file.
  * <seed>               =   Random number generator's seed
  * <numberOfIterations> =   number of random restarts on the graph
+ * exact=true           =   prove the clique found maximum with an exact search afterwards(optional)
+ * verify=true          =   check a binary graph file against its checksum when loading it(optional)
+ * reduce=false         =   restart on the whole graph instead of shrinking it to the cores that can hold a larger
+ *                          clique(optional)
+ * time=<seconds>       =   stop the restarts, and the exact search, once this many seconds have passed(optional)
+ * target=<size>        =   stop as soon as a clique of this size is found(optional)
+ * checkpoint=<file>    =   write the progress of every worker to this file, suffixed with the rank of the worker, every
+ *                          minute(optional)
+ * resume=true          =   continue the run whose progress is in the checkpoint files(optional)
+ * improve=<moves>      =   carry on from every restart's clique with this many moves of local search(optional)
+ * starts=adaptive      =   start the restarts from every vertex once, then from those that did best(optional)
+ * progress=<seconds>   =   print the restart counts this often(optional)
+ * metrics=<file>       =   write the restart counts to this file as JSON(optional)
  * 
  * @author  Yogesh Jagadeesan and Dler Ahmad
  * @version 03-Dec-2013
  */
 public class MaxCliqueClu extends Job{
     
+    /**
+     * Options the program takes after its positional arguments.
+     */
+    static final String[] OPTIONS = {"exact", "verify", "reduce", "time", "target", "checkpoint", "resume", "improve",
+            "starts", "progress", "metrics"};
+    
    /**
     * Worker task class.
     */
@@ -32,7 +60,11 @@ public class MaxCliqueClu extends Job{
         /**
          * Task main program.
          * 
-         * @param   args    random number seed entered by the user.
+         * @param   args    random number seed entered by the user, whether to shrink the graph as cliques are found,
+         *                  the wall clock time to stop at, the clique size to stop at, the number of iterations, the
+         *                  checkpoint file(empty for none), whether to resume from it, the number of local search
+         *                  moves after every restart, the policy to choose start vertices by and the seconds between
+         *                  progress lines(0 for none).
          */
         @Override
         public void main (String[] args) throws Exception{
@@ -41,93 +73,160 @@ public class MaxCliqueClu extends Job{
             final long seed = Long.parseLong (args[0]);
             final Graph graph = readTuple (new Graph());
             final Clique best = new Clique (graph.getNumberOfVertices());
+            final boolean reduce = Boolean.parseBoolean(args[1]);
+            final GraphReduction reduction = new GraphReduction(graph);
+            final int improve = Integer.parseInt(args[7]);
+            final StartScheduler starts = StartScheduler.create(args[8], reduction.getCores());
+            
+            //Stop early once the time is up, the target is reached or the clique is as large as the colouring allows
+            final Budget budget = new Budget(Long.parseLong(args[2]), Integer.parseInt(args[3]));
+            budget.setUpperBound(reduction.getCores().colouringBound(graph));
+            
+            //Follow the cliques the workers publish as they improve, including this one. A larger clique found by any
+            //worker shrinks the graph here too, and counts towards the target and the upper bound.
+            final CoreDecomposition cores = reduction.getCores();
+            final AtomicInteger incumbent = new AtomicInteger();
+            addTupleListener(new TupleListener<Clique>(new Clique(), false){
+                @Override
+                public void run(Clique clique){
+                    if(raise(incumbent, clique.getSize()) && reduce){
+                        reduction.update(clique.getSize());
+                    }
+                }
+            });
+            
+            //Resume from this worker's checkpoint if asked to, and let the other workers know the best clique found
+            final Checkpoint checkpoint = Checkpoint.open(args[5].isEmpty() ? null : args[5]+"."+taskRank(),
+                    Boolean.parseBoolean(args[6]), seed, Integer.parseInt(args[4]), threads());
+            checkpoint.restore(best);
+            if(raise(incumbent, best.getSize())){
+                putTuple((Clique) best.clone());
+            }
+            if(reduce){
+                reduction.update(best.getSize());
+            }
+            checkpoint.start();
+            
+            //Count the restarts of every thread, printing the counts every so often if asked to
+            final Metrics.Reporter reporter = new Metrics.Reporter(System.currentTimeMillis(), 0);
+            reporter.start(Integer.parseInt(args[9]), "Worker "+taskRank()+" progress: ");
 
             // Do iterations in parallel.
             workerFor() .exec (new Loop(){
                 
-                Clique current;
+                GreedyRestart restart;
                 Clique thrBest;
                 Random prng;
-                ArrayList<Integer> currentClique;
+                Metrics metrics;
                 
                 @Override
                 public void start(){
                     
-                    // Set up pseudorandom number generator, current and thread local max cliques
-                    prng = new Random (seed + taskRank()*1000 + rank());
+                    // Set up pseudorandom number generator, restart workspace and thread local max clique
+                    prng = checkpoint.random(rank(), GreedyRestart.seed(seed, taskRank(), rank()));
                     thrBest = threadLocal(best);
-                    current = new Clique(graph.getNumberOfVertices());
-                    currentClique = new ArrayList<Integer>();
+                    restart = new GreedyRestart(graph.getNumberOfVertices(), graph.getMaxDegree());
+                    metrics = reporter.register();
                 }
 
                 @Override
                 public void run (int iter){
-                    //Reset for every iteration
-                    current.reset();
-                    currentClique.clear();
-                        
-                    //Pick a random vertex from the random number generator.
-                    int requiredDegree = 1;
-                    int currentVertex = prng.nextInt(graph.getNumberOfVertices());
-            
-                    //Add vertex into consideration.
-                    current.add(currentVertex);
-                    currentClique.add(currentVertex);
+                    //Skip the iterations done before resuming, and the remaining restarts once the budget is spent
+                    if(checkpoint.isCompleted(iter) || budget.isSpent(Math.max(thrBest.getSize(), incumbent.get()))){
+                        return;
+                    }
                     
-                    while(true){
-                        int successiveVertex = -1;
-                        int successiveVertexDegree = -1;
-                        int[] neighbour = graph.getNeighbours(currentVertex);
-                                
-                        //Explore neighbours of the picked vertex
-                        for(int neigh=0; neigh<neighbour.length; ++neigh){
-                            if(neighbour[neigh]==1 && graph.getDegree(neigh) >= requiredDegree && !current.isVertexInClique(neigh)){  
-                        
-                                //Check if neighbour forms a clique with the clique so far
-                                boolean isStillClique = true;
-                                for(int cidx=0; cidx<currentClique.size(); ++cidx){
-                                    if(!graph.isConnected(neigh, currentClique.get(cidx))){
-                                        isStillClique = false;
-                                        break;
-                                    }
-                                }
-                        
-                                //Check for neighbour quality to see if it has potential to form a bigger clique by checking its degree
-                                if(isStillClique){
-                                    if((successiveVertex == -1 && successiveVertexDegree == -1)||(graph.getDegree(neigh) > successiveVertexDegree)){
-                                        successiveVertex = neigh;
-                                        successiveVertexDegree = graph.getDegree(neigh);
-                                    }
-                                    else if((graph.getDegree(neigh) == successiveVertexDegree) && (prng.nextBoolean())){
-                                        successiveVertex = neigh;
-                                        successiveVertexDegree = graph.getDegree(neigh);
-                                    }
-                                }
-                            }
-                        }       
-                        
-                        //the neighbour if estimated to be a potential one, is added to current clique and hence the current clique is grown
-                        if(successiveVertex!=-1 && successiveVertexDegree!=-1){
-                            current.add(successiveVertex);
-                            currentClique.add(successiveVertex);
-                            ++requiredDegree;
+                    //Restart on the graph reduced to the vertices that can still be in a larger clique, if any are left
+                    Graph reduced = reduction.getGraph();
+                    if(reduced.getNumberOfVertices() == 0){
+                        return;
+                    }
+                    
+                    //Time the restart for the flight recorder
+                    RestartEvent event = null;
+                    if(Metrics.isRecording()){
+                        event = new RestartEvent();
+                        event.begin();
+                    }
+
+                    //Pick the vertex to start from, at random unless the starts option says otherwise.
+                    int currentVertex = starts.next(reduced, prng);
+                    if(currentVertex == -1){
+                        metrics.skipped();
+                        checkpoint.completed(rank(), iter, prng);
+                        return;
+                    }
+                    
+                    //Skip the restart if the vertex cannot be in a larger clique than the best published one. Starting
+                    //from it again could never help either, so the scheduler counts it as covered for good.
+                    if(cores.getCoreNumber(reduced.getLabel(currentVertex)) < incumbent.get()){
+                        starts.report(reduced.getLabel(currentVertex), 0, true);
+                        metrics.skipped();
+                        checkpoint.completed(rank(), iter, prng);
+                        return;
+                    }
+
+                    //Grow a clique greedily from it, and improve it with a local search if asked to
+                    Clique current = restart.run(reduced, currentVertex, prng, improve);
+                    starts.report(reduced.getLabel(currentVertex), current.getSize(), restart.isDeterministic());
+                    metrics.restart(current.getSize(), restart.getSteps(), restart.getProbes());
+                    if(event != null && event.shouldCommit()){
+                        event.iteration = iter;
+                        event.start = reduced.getLabel(currentVertex);
+                        event.size = current.getSize();
+                        event.steps = restart.getSteps();
+                        event.probes = restart.getProbes();
+                        event.commit();
+                    }
+                    checkpoint.completed(rank(), iter, prng);
                     
-                            //Attempt to expand clique from this neighbour
-                            currentVertex = successiveVertex;
+                    //Compare it with the thread local max clique found so far, numbering its vertices as in the original graph.
+                    //A larger clique shrinks the graph further for all threads.
+                    if(current.getSize() > thrBest.getSize()){
+                        restart.copyTo(thrBest);
+                        checkpoint.improved(rank(), thrBest);
+                        metrics.improved(thrBest.getSize(), reporter.elapsed());
+                        if(reduce){
+                            reduction.update(thrBest.getSize());
                         }
-                        else{
-                            break;
+                        
+                        //Publish the clique if it beats every clique published so far, for the other workers to prune
+                        //with and for the job to report
+                        if(raise(incumbent, thrBest.getSize())){
+                            putTuple((Clique) thrBest.clone());
+                            System.err.println("Worker "+taskRank()+" found a clique of size "+thrBest.getSize());
                         }
                     }
-                    
-                    //Compare it with the thread local max clique found so far.
-                    thrBest.reduce(current);
                 }
             });
             
-            //Put best-of-best clique into tuple space.
+            checkpoint.finish();
+            
+            //Put best-of-best clique and the merged counts into tuple space.
             putTuple (best);
-        }   
+            Metrics total = reporter.finish();
+            total.setWorker(taskRank());
+            putTuple (total);
+        }
+        
+        /**
+         * Raise the size of the largest published clique.
+         * 
+         * @param incumbent     Size of the largest published clique.
+         * @param size          Size of a clique.
+         * @return              true if the clique is larger than any published before, false otherwise.
+         */
+        private static boolean raise(AtomicInteger incumbent, int size){
+            while(true){
+                int current = incumbent.get();
+                if(size <= current){
+                    return false;
+                }
+                if(incumbent.compareAndSet(current, size)){
+                    return true;
+                }
+            }
+        }
     }
 
    /**
@@ -138,11 +237,15 @@ public class MaxCliqueClu extends Job{
        /**
         * Reduction task main program.
         * 
-        * @param    args    number of vertices of the graph
+        * @param    args    number of vertices of the graph, whether to prove the clique maximum, the wall clock time
+        *                   to stop at, the clique size to stop at, the file for the metrics summary(empty for none)
+        *                   and the milliseconds spent loading the graph
         */
         @Override
         public void main (String[] args) throws Exception{
             int numberOfVertices = Integer.parseInt(args[0]);
+            boolean exact = Boolean.parseBoolean(args[1]);
+            Budget budget = new Budget(Long.parseLong(args[2]), Integer.parseInt(args[3]));
             
             //Determine the best of all cliques from each worker tasl
             Clique bestOfBest = new Clique(numberOfVertices);
@@ -152,16 +255,54 @@ public class MaxCliqueClu extends Job{
                 bestOfBest.reduce (candidateBest);
             }
             
+            //Merge the counts of all workers, reporting the throughput of each so the load balance shows
+            ArrayList<Metrics> workers = new ArrayList<Metrics>();
+            Metrics metrics;
+            while ((metrics = tryToTakeTuple (new Metrics())) != null){
+                workers.add(metrics);
+            }
+            Collections.sort(workers, new Comparator<Metrics>(){
+                @Override
+                public int compare(Metrics a, Metrics b){
+                    return Integer.compare(a.getWorker(), b.getWorker());
+                }
+            });
+            Metrics total = new Metrics();
+            for(Metrics worker : workers){
+                System.err.println("Worker "+worker.getWorker()+": "+worker.report());
+                total.reduce(worker);
+            }
+            total.setLoadTime(Long.parseLong(args[5]));
+            System.err.println(total.report());
+            if(!args[4].isEmpty()){
+                total.writeJson(new File(args[4]), workers);
+            }
+            
+            //Prove the clique maximum with an exact search on all threads, or replace it with one that is.
+            boolean proven = false;
+            String reason = null;
+            if(exact){
+                Graph graph = readTuple (new Graph());
+                CoreDecomposition cores = new CoreDecomposition(graph);
+                budget.setUpperBound(cores.colouringBound(graph));
+                BranchAndBound search = new BranchAndBound(graph, cores);
+                search.setBudget(budget);
+                bestOfBest = search.solve(bestOfBest, threads());
+                proven = search.isProven();
+                reason = search.getReason();
+            }
+            
             //Print the vertices of the max clique
             int[] vertices = bestOfBest.getVertices();
             int size = bestOfBest.getSize();
             System.out.println("Vertices in the clique are as follows:");
             for(int idx=0; idx<vertices.length; ++idx){
-                if(vertices[idx]==1){
-                    System.out.print(idx+" ");
-                }
+                System.out.print(vertices[idx]+" ");
             }
             System.out.println("\nSize of max clique is: "+size);
+            if(exact){
+                System.out.println(proven ? "The clique is proven to be maximum" : "The clique could not be proven maximum, "+reason);
+            }
         }
     }
 
@@ -172,7 +313,7 @@ public class MaxCliqueClu extends Job{
      * @return          True if all arguments are valid. False if even one is invalid.
      */
     boolean isValid(String[] args){
-        boolean seedValid=true, iterationsValid=true, fileValid=true;
+        boolean seedValid=true, iterationsValid=true, fileValid=true, optionsValid=true;
         try{
             FileReader sample = new FileReader(new File(args[0]));
         }
@@ -194,7 +335,14 @@ public class MaxCliqueClu extends Job{
             System.err.println("Invalid number of iterations value");
             iterationsValid = false;
         }
-        return (seedValid && iterationsValid && fileValid);
+        try{
+            Options options = new Options(args, 3, OPTIONS);
+        }
+        catch(Exception e){
+            System.err.println(e.getMessage());
+            optionsValid = false;
+        }
+        return (seedValid && iterationsValid && fileValid && optionsValid);
     }
     
     /**
@@ -206,26 +354,37 @@ public class MaxCliqueClu extends Job{
     public void main(String[] args) throws Exception {
         
         //Validate
-        if(args.length!=3 || !isValid(args)){
-            if(args.length!=3){
-                System.err.println("Usage: java pj2 MaxCliqueSeq <filename> <seed> <numberOfIterations>");
+        if(args.length<3 || !isValid(args)){
+            if(args.length<3){
+                System.err.println("Usage: java pj2 MaxCliqueSeq <filename> <seed> <numberOfIterations> [exact=true] [verify=true] [reduce=false] [time=<seconds>] [target=<size>] [checkpoint=<file> [resume=true]] [improve=<moves>] [starts=adaptive] [progress=<seconds>] [metrics=<file>]");
             }
             throw new TerminateException("An error has occurred in one or more arguments..Exiting...");
         }
         
         //Initialize      
+        long start = System.currentTimeMillis();
         File file = new File(args[0]);
         long seed = Long.parseLong(args[1]);
         int numberOfIterations = Integer.parseInt(args[2]);
+        Options options = new Options(args, 3, OPTIONS);
         
         //Put generated graph in tuple space to be picked up by other worker tasks
-        Graph graph = new Graph(file);
+        GraphLoader loader = new GraphLoader(file, Runtime.getRuntime().availableProcessors());
+        loader.setVerify(options.getBoolean("verify", false));
+        Graph graph = loader.load();
+        System.err.println(loader.report());
         putTuple(graph);
         
-        // Do N iterations in multiple worker tasks.
-        masterFor (0, numberOfIterations - 1, WorkerTask.class).args (""+seed);
+        // Do N iterations in multiple worker tasks. They all stop at the same wall clock time.
+        Budget budget = Budget.fromOptions(options, start);
+        masterFor (0, numberOfIterations - 1, WorkerTask.class).args (""+seed, ""+options.getBoolean("reduce", true),
+                ""+budget.getDeadline(), ""+budget.getTarget(), ""+numberOfIterations, options.getString("checkpoint", ""),
+                ""+options.getBoolean("resume", false), ""+options.getInt("improve", 0),
+                options.getString("starts", StartScheduler.RANDOM), ""+options.getInt("progress", 0));
 
         // Reduce task.
-        rule().atFinish().task (ReduceTask.class).args(""+graph.getNumberOfVertices()).runInJobProcess();
+        rule().atFinish().task (ReduceTask.class).args(""+graph.getNumberOfVertices(), ""+options.getBoolean("exact", false),
+                ""+budget.getDeadline(), ""+budget.getTarget(), options.getString("metrics", ""),
+                ""+loader.getLoadTime()).runInJobProcess();
     }
 }
\ No newline at end of file
@@ -2,7 +2,6 @@ import edu.rit.pj2.Task;
 import edu.rit.pj2.TerminateException;
 import edu.rit.util.Random;
 import java.io.File;
-import java.util.ArrayList;
 import java.io.FileReader;
 
 /**
@@ -10,15 +9,34 @@ import java.io.FileReader;
  * graph input file, does a specified number of random restarts and finds a clique of maximum size among those random
  * restarts.
  * 
- * Usage: java pj2 MaxCliqueSeq <filename> <seed> <numberOfIterations>
- * <filename>           =   name of the file that contains the graph.
+ * Usage: java pj2 MaxCliqueSeq <filename> <seed> <numberOfIterations> [exact=true] [verify=true] [mapped=true] [reduce=false] [time=<seconds>] [target=<size>] [checkpoint=<file> [resume=true]] [improve=<moves>] [starts=adaptive] [progress=<seconds>] [metrics=<file>]
+ * <filename>           =   name of the file that contains the graph, as an edge list or a binary graph file.
  * <seed>               =   Random number generator's seed
  * <numberOfIterations> =   number of random restarts on the graph
+ * exact=true           =   prove the clique found maximum with an exact search afterwards(optional)
+ * verify=true          =   check a binary graph file against its checksum when loading it(optional)
+ * mapped=true          =   read a binary graph file in place instead of copying it onto the heap(optional)
+ * reduce=false         =   restart on the whole graph instead of shrinking it to the cores that can hold a larger
+ *                          clique(optional)
+ * time=<seconds>       =   stop the restarts, and the exact search, once this many seconds have passed(optional)
+ * target=<size>        =   stop as soon as a clique of this size is found(optional)
+ * checkpoint=<file>    =   write the progress to this file every minute(optional)
+ * resume=true          =   continue the run whose progress is in the checkpoint file(optional)
+ * improve=<moves>      =   carry on from every restart's clique with this many moves of local search(optional)
+ * starts=adaptive      =   start the restarts from every vertex once, then from those that did best(optional)
+ * progress=<seconds>   =   print the restart counts this often(optional)
+ * metrics=<file>       =   write the restart counts to this file as JSON(optional)
  * 
  * @author  Yogesh Jagadeesan and Dler Ahmad
  * @version 03-Dec-2013
  */
 public class MaxCliqueSeq extends Task{
+    
+    /**
+     * Options the program takes after its positional arguments.
+     */
+    static final String[] OPTIONS = {"exact", "verify", "mapped", "reduce", "time", "target", "checkpoint", "resume",
+            "improve", "starts", "progress", "metrics"};
 
     /**
      * Check if all arguments are valid
@@ -27,7 +45,7 @@ public class MaxCliqueSeq extends Task{
      * @return          True if all arguments are valid. False if even one is invalid.
      */
     boolean isValid(String[] args){
-        boolean seedValid=true, iterationsValid=true, fileValid=true;
+        boolean seedValid=true, iterationsValid=true, fileValid=true, optionsValid=true;
         try{
             FileReader sample = new FileReader(new File(args[0]));
         }
@@ -49,7 +67,14 @@ public class MaxCliqueSeq extends Task{
             System.err.println("Invalid number of iterations value");
             iterationsValid = false;
         }
-        return (seedValid && iterationsValid && fileValid);
+        try{
+            Options options = new Options(args, 3, OPTIONS);
+        }
+        catch(Exception e){
+            System.err.println(e.getMessage());
+            optionsValid = false;
+        }
+        return (seedValid && iterationsValid && fileValid && optionsValid);
     }
     
     /**
@@ -61,103 +86,137 @@ public class MaxCliqueSeq extends Task{
     public void main(String[] args) throws Exception {
         
         //Validate
-        if(args.length!=3 || !isValid(args)){
-            if(args.length!=3){
-                System.err.println("Usage: java pj2 MaxCliqueSeq <filename> <seed> <numberOfIterations>");
+        if(args.length<3 || !isValid(args)){
+            if(args.length<3){
+                System.err.println("Usage: java pj2 MaxCliqueSeq <filename> <seed> <numberOfIterations> [exact=true] [verify=true] [mapped=true] [reduce=false] [time=<seconds>] [target=<size>] [checkpoint=<file> [resume=true]] [improve=<moves>] [starts=adaptive] [progress=<seconds>] [metrics=<file>]");
             }
             throw new TerminateException("An error has occurred in one or more arguments..Exiting...");
         }
         
         //Initialize
+        long start = System.currentTimeMillis();
         File file = new File(args[0]);
         long seed = Long.parseLong(args[1]);
         int numberOfIterations = Integer.parseInt(args[2]);
-        ArrayList<Integer> currentClique = new ArrayList<Integer>();
-        
+        Options options = new Options(args, 3, OPTIONS);
         
         //Generate graph from the file.
-        Graph graph = new Graph(file);
-        int numberOfVertices = graph.getNumberOfVertices();
-        Clique current = new Clique(graph.getNumberOfVertices());   //Reset for every iteration
+        GraphLoader loader = new GraphLoader(file, 1);
+        loader.setVerify(options.getBoolean("verify", false));
+        loader.setMapped(options.getBoolean("mapped", false));
+        Graph graph = loader.load();
+        System.err.println(loader.report());
+        GreedyRestart restart = new GreedyRestart(graph.getNumberOfVertices(), graph.getMaxDegree());  //Reused by every iteration
         Clique best = new Clique(graph.getNumberOfVertices());      //holds the clique of max size found up until that point
+        boolean reduce = options.getBoolean("reduce", true);        //Shrink the graph whenever a larger clique is found
+        GraphReduction reduction = new GraphReduction(graph);
+        int improve = options.getInt("improve", 0);                 //Local search moves after every restart
+        StartScheduler starts = StartScheduler.create(options.getString("starts", StartScheduler.RANDOM),
+                reduction.getCores());
+        
+        //Stop early once the time is up, the target is reached or the clique is as large as the colouring allows
+        Budget budget = Budget.fromOptions(options, start);
+        budget.setUpperBound(reduction.getCores().colouringBound(graph));
                       
+        //Resume from the checkpoint if asked to, taking up the best clique found before
+        Checkpoint checkpoint = Checkpoint.open(options.getString("checkpoint", null), options.getBoolean("resume", false),
+                seed, numberOfIterations, 1);
+        checkpoint.restore(best);
+        if(reduce){
+            reduction.update(best.getSize());
+        }
+        checkpoint.start();
+        
         // Set up pseudorandom number generator.
-        Random prng = new Random (seed);
+        Random prng = checkpoint.random(0, GreedyRestart.seed(seed, 0, 0));
+        
+        //Count the restarts, printing the counts every so often if asked to
+        Metrics.Reporter reporter = new Metrics.Reporter(System.currentTimeMillis(), loader.getLoadTime());
+        Metrics metrics = reporter.register();
+        reporter.start(options.getInt("progress", 0), "Progress: ");
         
         for(int iter=0; iter<numberOfIterations; ++iter){
+            if(checkpoint.isCompleted(iter)){
+                continue;
+            }
+            if(budget.isSpent(best.getSize())){
+                System.err.println("Stopped after "+iter+" restarts, "+budget.getReason());
+                break;
+            }
             
-            //Reset for every iteration
-            current.reset();
-            currentClique.clear();
-                                   
-            //Pick a random vertex from the random number generator.
-            int requiredDegree = 1;
-            int currentVertex = prng.nextInt(numberOfVertices);
+            //Restart on the graph reduced to the vertices that can still be in a larger clique, if any are left
+            Graph reduced = reduction.getGraph();
+            if(reduced.getNumberOfVertices() == 0){
+                break;
+            }
             
-            //Add vertex into consideration.
-            current.add(currentVertex);
-            currentClique.add(currentVertex);
+            //Time the restart for the flight recorder
+            RestartEvent event = null;
+            if(Metrics.isRecording()){
+                event = new RestartEvent();
+                event.begin();
+            }
+
+            //Pick the vertex to start from, at random unless the starts option says otherwise.
+            int currentVertex = starts.next(reduced, prng);
+            if(currentVertex == -1){
+                metrics.skipped();
+                checkpoint.completed(0, iter, prng);
+                continue;
+            }
+
+            //Grow a clique greedily from it, and improve it with a local search if asked to
+            Clique current = restart.run(reduced, currentVertex, prng, improve);
+            starts.report(reduced.getLabel(currentVertex), current.getSize(), restart.isDeterministic());
+            metrics.restart(current.getSize(), restart.getSteps(), restart.getProbes());
+            if(event != null && event.shouldCommit()){
+                event.iteration = iter;
+                event.start = reduced.getLabel(currentVertex);
+                event.size = current.getSize();
+                event.steps = restart.getSteps();
+                event.probes = restart.getProbes();
+                event.commit();
+            }
+            checkpoint.completed(0, iter, prng);
             
-            while(true){
-                int successiveVertex = -1;
-                int successiveVertexDegree = -1;
-                int[] neighbour = graph.getNeighbours(currentVertex);                             
-                
-                //Explore neighbours of the picked vertex
-                for(int neigh=0; neigh<neighbour.length; ++neigh){
-                    if(neighbour[neigh]==1 && graph.getDegree(neigh) >= requiredDegree && !current.isVertexInClique(neigh)){  
-                        
-                        //Check if neighbour forms a clique with the clique so far
-                        boolean isStillClique = true;
-                        for(int cidx=0; cidx<currentClique.size(); ++cidx){
-                            if(!graph.isConnected(neigh, currentClique.get(cidx))){
-                                isStillClique = false;
-                                break;
-                            }
-                        }
-                        
-                        //Check for neighbour quality to see if it has potential to form a bigger clique by checking its degree
-                        if(isStillClique){
-                            if((successiveVertex == -1 && successiveVertexDegree == -1)||(graph.getDegree(neigh) > successiveVertexDegree)){
-                                successiveVertex = neigh;
-                                successiveVertexDegree = graph.getDegree(neigh);
-                            }
-                            else if((graph.getDegree(neigh) == successiveVertexDegree) && (prng.nextBoolean())){
-                                successiveVertex = neigh;
-                                successiveVertexDegree = graph.getDegree(neigh);
-                            }
-                        }
-                    }
-                }    
-                
-                //the neighbour if estimated to be a potential one, is added to current clique and hence the current clique is grown
-                if(successiveVertex!=-1 && successiveVertexDegree!=-1){
-                    current.add(successiveVertex);
-                    currentClique.add(successiveVertex);
-                    ++requiredDegree;
-                    
-                    //Attempt to expand clique from this neighbour
-                    currentVertex = successiveVertex;
-                }
-                else{
-                    break;
+            //Compare it with the max clique found so far, numbering its vertices as in the original graph. A larger
+            //clique shrinks the graph further, down to nothing once no larger clique can exist.
+            if(current.getSize() > best.getSize()){
+                restart.copyTo(best);
+                checkpoint.improved(0, best);
+                metrics.improved(best.getSize(), reporter.elapsed());
+                if(reduce){
+                    reduction.update(best.getSize());
                 }
             }
-            
-            //Compare it with the max clique found so far.
-            best.reduce(current);
+        }
+        checkpoint.finish();
+        reporter.finish().summarize(options.getString("metrics", null));
+        
+        //Prove the clique maximum with an exact search, or replace it with one that is.
+        Clique result = best;
+        boolean exact = options.getBoolean("exact", false);
+        boolean proven = false;
+        String reason = null;
+        if(exact){
+            BranchAndBound search = new BranchAndBound(graph, reduction.getCores());
+            search.setBudget(budget);
+            result = search.solve(best);
+            proven = search.isProven();
+            reason = search.getReason();
         }
         
         //Print the max clique found after all iterations.
-        int[] vertices = best.getVertices();
-        int size = best.getSize();
+        int[] vertices = result.getVertices();
+        int size = result.getSize();
         System.out.println("Vertices in the clique are as follows:");
         for(int idx=0; idx<vertices.length; ++idx){
-            if(vertices[idx]==1){
-                System.out.print(idx+" ");
-            }
+            System.out.print(vertices[idx]+" ");
         }
         System.out.println("\nSize of max clique is: "+size);
+        if(exact){
+            System.out.println(proven ? "The clique is proven to be maximum" : "The clique could not be proven maximum, "+reason);
+        }
     }
     
     /**
@@ -0,0 +1,462 @@
+import edu.rit.io.InStream;
+import edu.rit.io.OutStream;
+import edu.rit.pj2.Tuple;
+import edu.rit.pj2.Vbl;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Counters of a run of random restarts: the restarts done and skipped, the vertices added while constructing cliques,
+ * the adjacency probes(candidate vertices checked against the clique), a histogram of the sizes of the cliques found,
+ * when the best clique was found, and how long loading and searching took. Every thread counts into its own Metrics,
+ * so counting takes no locks; a Reporter merges the threads' counters for periodic progress lines and at the end of
+ * the run. In a cluster job every worker sends its merged counters to the job as a tuple, where they are merged again.
+ * 
+ * The merged counters can be written as a JSON summary with the metrics option. Every restart is also recorded as a
+ * RestartEvent for Java Flight Recorder, which costs nothing unless a recording is running.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class Metrics extends Tuple implements Vbl {
+    
+    private int worker;             //  Rank of the worker in a cluster job, -1 otherwise
+    private long restarts;          //  Number of restarts done
+    private long skipped;           //  Number of restarts skipped without a search
+    private long steps;             //  Number of vertices added by the greedy constructions
+    private long probes;            //  Number of candidate vertices checked
+    private long[] sizes;           //  Number of restarts that found a clique of every size
+    private int bestSize;           //  Size of the best clique found
+    private long bestTime;          //  Milliseconds from the start of the search to the best clique, -1 if none
+    private long loadTime;          //  Milliseconds spent loading the graph
+    private long searchTime;        //  Milliseconds spent searching
+    private long[] threadRestarts;  //  Restarts done by every thread merged into these counters
+    
+    /**
+     * Create empty counters.
+     */
+    public Metrics(){
+        worker = -1;
+        sizes = new long[0];
+        bestTime = -1;
+        threadRestarts = new long[0];
+    }
+    
+    /**
+     * Check whether Java Flight Recorder has been started, so that restarts should be recorded as RestartEvents.
+     * 
+     * @return  true if the recorder runs.
+     */
+    public static boolean isRecording(){
+        return FlightRecorder.isInitialized();
+    }
+    
+    /**
+     * Count a restart.
+     * 
+     * @param size      Size of the clique it found.
+     * @param _steps    Number of vertices the greedy construction added.
+     * @param _probes   Number of candidate vertices it checked.
+     */
+    public void restart(int size, int _steps, long _probes){
+        ++restarts;
+        steps += _steps;
+        probes += _probes;
+        if(size >= sizes.length){
+            sizes = Arrays.copyOf(sizes, Math.max(16, 2*size));
+        }
+        ++sizes[size];
+    }
+    
+    /**
+     * Count a restart skipped without a search.
+     */
+    public void skipped(){
+        ++skipped;
+    }
+    
+    /**
+     * Record that a better clique was found.
+     * 
+     * @param size  Size of the clique.
+     * @param time  Milliseconds from the start of the search.
+     */
+    public void improved(int size, long time){
+        if(size > bestSize){
+            bestSize = size;
+            bestTime = time;
+        }
+    }
+    
+    /**
+     * Set the time spent loading the graph.
+     * 
+     * @param _loadTime     Milliseconds.
+     */
+    public void setLoadTime(long _loadTime){
+        loadTime = _loadTime;
+    }
+    
+    /**
+     * Set the time spent searching.
+     * 
+     * @param _searchTime   Milliseconds.
+     */
+    public void setSearchTime(long _searchTime){
+        searchTime = _searchTime;
+    }
+    
+    /**
+     * Set the rank of the worker the counters are from.
+     * 
+     * @param _worker   Rank of the worker in the cluster job.
+     */
+    public void setWorker(int _worker){
+        worker = _worker;
+    }
+    
+    /**
+     * Get the rank of the worker the counters are from.
+     * 
+     * @return  Rank of the worker in the cluster job, -1 outside one.
+     */
+    public int getWorker(){
+        return worker;
+    }
+    
+    /**
+     * Get the number of restarts done.
+     * 
+     * @return  Number of restarts.
+     */
+    public long getRestarts(){
+        return restarts;
+    }
+    
+    /**
+     * Describe the counters in one line.
+     * 
+     * @return  The line.
+     */
+    public String report(){
+        return restarts+" restarts("+skipped+" skipped) in "+seconds(searchTime)+" s, "+rate()+" restarts/s on "
+                +threadRestarts.length+" threads, best clique "+bestSize+" after "+seconds(bestTime)+" s, "+steps
+                +" construction steps, "+probes+" adjacency probes";
+    }
+    
+    /**
+     * Get the number of restarts per second of search.
+     * 
+     * @return  Restarts per second, rounded.
+     */
+    private long rate(){
+        return searchTime > 0 ? 1000*restarts/searchTime : 0;
+    }
+    
+    /**
+     * Format milliseconds as seconds.
+     * 
+     * @param millis    Milliseconds, -1 for none.
+     * @return          Seconds with three decimals, or "-".
+     */
+    private static String seconds(long millis){
+        return millis < 0 ? "-" : String.format("%.3f", millis/1000.0);
+    }
+    
+    /**
+     * Write the counters as the fields of a JSON object.
+     * 
+     * @param json      Where to write.
+     * @param indent    Indent of the fields.
+     */
+    private void json(StringBuilder json, String indent){
+        if(worker >= 0){
+            json.append(indent).append("\"worker\": ").append(worker).append(",\n");
+        }
+        json.append(indent).append("\"load_ms\": ").append(loadTime).append(",\n");
+        json.append(indent).append("\"search_ms\": ").append(searchTime).append(",\n");
+        json.append(indent).append("\"restarts\": ").append(restarts).append(",\n");
+        json.append(indent).append("\"skipped\": ").append(skipped).append(",\n");
+        json.append(indent).append("\"restarts_per_second\": ").append(rate()).append(",\n");
+        json.append(indent).append("\"construction_steps\": ").append(steps).append(",\n");
+        json.append(indent).append("\"adjacency_probes\": ").append(probes).append(",\n");
+        json.append(indent).append("\"best_size\": ").append(bestSize).append(",\n");
+        json.append(indent).append("\"time_to_best_ms\": ").append(bestTime).append(",\n");
+        json.append(indent).append("\"thread_restarts\": [");
+        for(int idx=0; idx<threadRestarts.length; ++idx){
+            json.append(idx > 0 ? ", " : "").append(threadRestarts[idx]);
+        }
+        json.append("],\n");
+        json.append(indent).append("\"clique_sizes\": {");
+        boolean first = true;
+        for(int size=0; size<sizes.length; ++size){
+            if(sizes[size] > 0){
+                json.append(first ? "" : ", ").append('"').append(size).append("\": ").append(sizes[size]);
+                first = false;
+            }
+        }
+        json.append("}");
+    }
+    
+    /**
+     * Write a JSON summary of a run.
+     * 
+     * @param file          File to write.
+     * @param workers       Counters of every worker of a cluster job, empty otherwise.
+     * @throws IOException  If the file cannot be written.
+     */
+    public void writeJson(File file, List<Metrics> workers) throws IOException{
+        StringBuilder json = new StringBuilder("{\n");
+        json(json, "  ");
+        if(!workers.isEmpty()){
+            json.append(",\n  \"workers\": [\n");
+            for(int idx=0; idx<workers.size(); ++idx){
+                json.append("    {\n");
+                workers.get(idx).json(json, "      ");
+                json.append(idx+1 < workers.size() ? "\n    },\n" : "\n    }\n");
+            }
+            json.append("  ]");
+        }
+        json.append("\n}\n");
+        PrintWriter out = new PrintWriter(file);
+        try{
+            out.print(json);
+        }
+        finally{
+            out.close();
+        }
+        if(out.checkError()){
+            throw new IOException("Cannot write "+file);
+        }
+    }
+    
+    /**
+     * Print the counters to the standard error, and write them as a JSON summary if asked to.
+     * 
+     * @param file          File for the JSON summary, null for none.
+     * @throws IOException  If the file cannot be written.
+     */
+    public void summarize(String file) throws IOException{
+        System.err.println(report());
+        if(file != null){
+            writeJson(new File(file), new ArrayList<Metrics>());
+        }
+    }
+    
+    /**
+     * Set the counters to those of the given counters.
+     * 
+     * @param vbl   Counters to copy.
+     */
+    @Override
+    public void set(Vbl vbl){
+        Metrics metrics = (Metrics) vbl;
+        worker = metrics.worker;
+        restarts = metrics.restarts;
+        skipped = metrics.skipped;
+        steps = metrics.steps;
+        probes = metrics.probes;
+        sizes = metrics.sizes.clone();
+        bestSize = metrics.bestSize;
+        bestTime = metrics.bestTime;
+        loadTime = metrics.loadTime;
+        searchTime = metrics.searchTime;
+        threadRestarts = metrics.threadRestarts.clone();
+    }
+    
+    /**
+     * Add the given counters to these. The best clique is the larger one, or the earlier of equal ones. Times spent
+     * loading and searching overlap between threads and workers, so the longest is kept.
+     * 
+     * @param vbl   Counters to add.
+     */
+    @Override
+    public void reduce(Vbl vbl){
+        Metrics metrics = (Metrics) vbl;
+        restarts += metrics.restarts;
+        skipped += metrics.skipped;
+        steps += metrics.steps;
+        probes += metrics.probes;
+        
+        //Read the histogram once, since the thread counting into it may replace it with a longer one meanwhile
+        long[] other = metrics.sizes;
+        if(other.length > sizes.length){
+            sizes = Arrays.copyOf(sizes, other.length);
+        }
+        for(int size=0; size<other.length; ++size){
+            sizes[size] += other[size];
+        }
+        if(metrics.bestSize > bestSize || (metrics.bestSize == bestSize && metrics.bestTime < bestTime)){
+            bestSize = metrics.bestSize;
+            bestTime = metrics.bestTime;
+        }
+        loadTime = Math.max(loadTime, metrics.loadTime);
+        searchTime = Math.max(searchTime, metrics.searchTime);
+        long[] otherThreads = metrics.threadRestarts;
+        int count = threadRestarts.length;
+        threadRestarts = Arrays.copyOf(threadRestarts, count + otherThreads.length);
+        System.arraycopy(otherThreads, 0, threadRestarts, count, otherThreads.length);
+    }
+    
+    /**
+     * Clone the counters.
+     * 
+     * @return  The clone.
+     */
+    @Override
+    public Vbl clone(){
+        Metrics metrics = new Metrics();
+        metrics.set(this);
+        return metrics;
+    }
+    
+    /**
+     * Write the counters to the tuple space.
+     * 
+     * @param out           Outstream to write the counters to.
+     * @throws IOException  not used.
+     */
+    @Override
+    public void writeOut(OutStream out) throws IOException{
+        out.writeInt(worker);
+        out.writeLong(restarts);
+        out.writeLong(skipped);
+        out.writeLong(steps);
+        out.writeLong(probes);
+        out.writeLongArray(sizes);
+        out.writeInt(bestSize);
+        out.writeLong(bestTime);
+        out.writeLong(loadTime);
+        out.writeLong(searchTime);
+        out.writeLongArray(threadRestarts);
+    }
+    
+    /**
+     * Read the counters from the tuple space.
+     * 
+     * @param in            The instream to read the counters from.
+     * @throws IOException  Not used.
+     */
+    @Override
+    public void readIn(InStream in) throws IOException{
+        worker = in.readInt();
+        restarts = in.readLong();
+        skipped = in.readLong();
+        steps = in.readLong();
+        probes = in.readLong();
+        sizes = in.readLongArray();
+        bestSize = in.readInt();
+        bestTime = in.readLong();
+        loadTime = in.readLong();
+        searchTime = in.readLong();
+        threadRestarts = in.readLongArray();
+    }
+    
+    /**
+     * Collects the counters of the threads of one program or worker, prints their sum every so many seconds and merges
+     * them at the end. The progress lines read the threads' counters while they are being updated, so they may be off
+     * by the restarts in progress.
+     */
+    static class Reporter {
+        
+        private List<Metrics> threads;              //  Counters of every thread
+        private long start;                         //  Wall clock time the search started
+        private long loadTime;                      //  Milliseconds spent loading the graph
+        private ScheduledExecutorService printer;   //  Prints progress lines, null if there are none
+        
+        /**
+         * Set up collecting counters.
+         * 
+         * @param _start        Wall clock time the search started, as returned by System.currentTimeMillis.
+         * @param _loadTime     Milliseconds spent loading the graph.
+         */
+        Reporter(long _start, long _loadTime){
+            threads = new ArrayList<Metrics>();
+            start = _start;
+            loadTime = _loadTime;
+        }
+        
+        /**
+         * Create the counters of a thread.
+         * 
+         * @return  The counters, for the thread only.
+         */
+        synchronized Metrics register(){
+            Metrics metrics = new Metrics();
+            threads.add(metrics);
+            return metrics;
+        }
+        
+        /**
+         * Get the milliseconds since the search started.
+         * 
+         * @return  Milliseconds.
+         */
+        long elapsed(){
+            return System.currentTimeMillis() - start;
+        }
+        
+        /**
+         * Merge the counters of all threads.
+         * 
+         * @return  New counters holding the sum.
+         */
+        synchronized Metrics total(){
+            Metrics total = new Metrics();
+            for(Metrics metrics : threads){
+                total.reduce(metrics);
+                total.threadRestarts = Arrays.copyOf(total.threadRestarts, total.threadRestarts.length+1);
+                total.threadRestarts[total.threadRestarts.length-1] = metrics.restarts;
+            }
+            total.loadTime = loadTime;
+            total.searchTime = elapsed();
+            return total;
+        }
+        
+        /**
+         * Start printing progress lines to the standard error.
+         * 
+         * @param seconds   Seconds between lines, 0 for none.
+         * @param prefix    Text to start every line with.
+         */
+        void start(int seconds, final String prefix){
+            if(seconds <= 0){
+                return;
+            }
+            printer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory(){
+                @Override
+                public Thread newThread(Runnable runnable){
+                    Thread thread = new Thread(runnable, "metrics");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            printer.scheduleAtFixedRate(new Runnable(){
+                @Override
+                public void run(){
+                    System.err.println(prefix+total().report());
+                }
+            }, seconds, seconds, TimeUnit.SECONDS);
+        }
+        
+        /**
+         * Stop printing progress lines and merge the counters of all threads.
+         * 
+         * @return  New counters holding the sum.
+         */
+        Metrics finish(){
+            if(printer != null){
+                printer.shutdownNow();
+            }
+            return total();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+import java.util.Arrays;
+
+/**
+ * Graph whose edges can be added and removed after it is built. Every vertex keeps its neighbours in a sorted array
+ * of its own with room to grow, so an edge is added or removed in time proportional to the degrees of its ends and
+ * looked up by binary search. The searches work on the immutable Graph, which induce and snapshot build from the
+ * current edges: induce for a few vertices in time proportional to their degrees, snapshot for the whole graph.
+ * 
+ * Vertices are numbered as in the graph it was built from, and the number of vertices is fixed.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class MutableGraph {
+    
+    private int[][] neighbours;     //  Sorted neighbours of every vertex(index), with room to grow
+    private int[] degree;           //  Degree of every vertex, the number of its neighbours in use
+    private long numberOfEdges;     //  Number of edges
+    
+    /**
+     * Build a graph of the given number of vertices and no edges.
+     * 
+     * @param numberOfVertices  Number of vertices.
+     */
+    public MutableGraph(int numberOfVertices){
+        neighbours = new int[numberOfVertices][];
+        degree = new int[numberOfVertices];
+        for(int vertex=0; vertex<numberOfVertices; ++vertex){
+            neighbours[vertex] = new int[4];
+        }
+    }
+    
+    /**
+     * Build a graph with the edges of the given one. Self loops and duplicate edges are left out.
+     * 
+     * @param graph     The graph to copy.
+     */
+    public MutableGraph(Graph graph){
+        int numberOfVertices = graph.getNumberOfVertices();
+        neighbours = new int[numberOfVertices][];
+        degree = new int[numberOfVertices];
+        int[] buffer = new int[graph.getMaxDegree()];
+        for(int vertex=0; vertex<numberOfVertices; ++vertex){
+            int count = graph.getNeighbours(vertex, buffer);
+            int[] list = new int[Math.max(4, count)];
+            int kept = 0;
+            for(int idx=0; idx<count; ++idx){
+                if(buffer[idx] != vertex && (kept == 0 || list[kept-1] != buffer[idx])){
+                    list[kept++] = buffer[idx];
+                }
+            }
+            neighbours[vertex] = list;
+            degree[vertex] = kept;
+            numberOfEdges += kept;
+        }
+        numberOfEdges /= 2;
+    }
+    
+    /**
+     * Get the number of vertices.
+     * 
+     * @return  Number of vertices.
+     */
+    public int getNumberOfVertices(){
+        return degree.length;
+    }
+    
+    /**
+     * Get the number of edges.
+     * 
+     * @return  Number of edges.
+     */
+    public long getNumberOfEdges(){
+        return numberOfEdges;
+    }
+    
+    /**
+     * Get the degree of a vertex.
+     * 
+     * @param vertex    The vertex.
+     * @return          Its degree.
+     */
+    public int getDegree(int vertex){
+        return degree[vertex];
+    }
+    
+    /**
+     * If two vertices are connected or not.
+     * 
+     * @param vertex1   First vertex.
+     * @param vertex2   Second vertex.
+     * @return          true if there is an edge between them.
+     */
+    public boolean isConnected(int vertex1, int vertex2){
+        return Arrays.binarySearch(neighbours[vertex1], 0, degree[vertex1], vertex2) >= 0;
+    }
+    
+    /**
+     * Copy the neighbours of a vertex into the given buffer in ascending order.
+     * 
+     * @param vertex    The vertex.
+     * @param buffer    Buffer to copy the neighbours into, at least getDegree(vertex) long.
+     * @return          Number of neighbours copied.
+     */
+    public int getNeighbours(int vertex, int[] buffer){
+        System.arraycopy(neighbours[vertex], 0, buffer, 0, degree[vertex]);
+        return degree[vertex];
+    }
+    
+    /**
+     * Copy the common neighbours of two vertices into the given buffer in ascending order.
+     * 
+     * @param vertex1   First vertex.
+     * @param vertex2   Second vertex.
+     * @param buffer    Buffer to copy them into, at least as long as the smaller degree.
+     * @return          Number of common neighbours.
+     */
+    public int getCommonNeighbours(int vertex1, int vertex2, int[] buffer){
+        int[] list1 = neighbours[vertex1];
+        int[] list2 = neighbours[vertex2];
+        int idx1 = 0, idx2 = 0, count = 0;
+        while(idx1 < degree[vertex1] && idx2 < degree[vertex2]){
+            if(list1[idx1] < list2[idx2]){
+                ++idx1;
+            }
+            else if(list1[idx1] > list2[idx2]){
+                ++idx2;
+            }
+            else{
+                buffer[count++] = list1[idx1];
+                ++idx1;
+                ++idx2;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Add an edge, unless it is a self loop or already there.
+     * 
+     * @param vertex1   First vertex.
+     * @param vertex2   Second vertex.
+     * @return          true if the edge was added.
+     */
+    public boolean addEdge(int vertex1, int vertex2){
+        if(vertex1 == vertex2 || isConnected(vertex1, vertex2)){
+            return false;
+        }
+        insert(vertex1, vertex2);
+        insert(vertex2, vertex1);
+        ++numberOfEdges;
+        return true;
+    }
+    
+    /**
+     * Remove an edge, if it is there.
+     * 
+     * @param vertex1   First vertex.
+     * @param vertex2   Second vertex.
+     * @return          true if the edge was removed.
+     */
+    public boolean removeEdge(int vertex1, int vertex2){
+        if(vertex1 == vertex2 || !isConnected(vertex1, vertex2)){
+            return false;
+        }
+        delete(vertex1, vertex2);
+        delete(vertex2, vertex1);
+        --numberOfEdges;
+        return true;
+    }
+    
+    /**
+     * Insert a neighbour into the sorted neighbours of a vertex, doubling their room if it is used up.
+     * 
+     * @param vertex    The vertex.
+     * @param neigh     Neighbour to insert, not yet a neighbour.
+     */
+    private void insert(int vertex, int neigh){
+        int[] list = neighbours[vertex];
+        if(degree[vertex] == list.length){
+            list = Arrays.copyOf(list, Math.max(4, 2*list.length));
+            neighbours[vertex] = list;
+        }
+        int pos = -Arrays.binarySearch(list, 0, degree[vertex], neigh)-1;
+        System.arraycopy(list, pos, list, pos+1, degree[vertex]-pos);
+        list[pos] = neigh;
+        ++degree[vertex];
+    }
+    
+    /**
+     * Delete a neighbour from the sorted neighbours of a vertex.
+     * 
+     * @param vertex    The vertex.
+     * @param neigh     Neighbour to delete, a neighbour.
+     */
+    private void delete(int vertex, int neigh){
+        int[] list = neighbours[vertex];
+        int pos = Arrays.binarySearch(list, 0, degree[vertex], neigh);
+        System.arraycopy(list, pos+1, list, pos, degree[vertex]-pos-1);
+        --degree[vertex];
+    }
+    
+    /**
+     * Build the subgraph induced by the given vertices as an immutable Graph, in time proportional to their degrees
+     * and number. Vertex idx of the subgraph stands for vertices[idx], as getLabel gives back.
+     * 
+     * @param vertices  Vertices to keep, in ascending order.
+     * @return          The induced subgraph, in compressed sparse row form.
+     */
+    public Graph induce(int[] vertices){
+        int count = vertices.length;
+        int[] subDegree = new int[count];
+        int[] subOffset = new int[count+1];
+        for(int idx=0; idx<count; ++idx){
+            subDegree[idx] = keep(vertices[idx], vertices, null, 0);
+            subOffset[idx+1] = subOffset[idx] + subDegree[idx];
+        }
+        int[] subAdjacency = new int[subOffset[count]];
+        for(int idx=0; idx<count; ++idx){
+            keep(vertices[idx], vertices, subAdjacency, subOffset[idx]);
+        }
+        Graph sub = new Graph(subDegree, null, subOffset, subAdjacency);
+        sub.setLabels(vertices.clone());
+        return sub;
+    }
+    
+    /**
+     * Find the neighbours of a vertex among the given vertices, by merging the two sorted lists.
+     * 
+     * @param vertex    The vertex.
+     * @param vertices  Vertices to look among, in ascending order.
+     * @param into      Where to store the indices in vertices of the neighbours found, or null to only count them.
+     * @param fill      Where in into to start storing.
+     * @return          Number of neighbours found.
+     */
+    private int keep(int vertex, int[] vertices, int[] into, int fill){
+        int[] list = neighbours[vertex];
+        int nidx = 0, kidx = 0, found = 0;
+        while(nidx < degree[vertex] && kidx < vertices.length){
+            if(list[nidx] < vertices[kidx]){
+                ++nidx;
+            }
+            else if(list[nidx] > vertices[kidx]){
+                ++kidx;
+            }
+            else{
+                if(into != null){
+                    into[fill + found] = kidx;
+                }
+                ++found;
+                ++nidx;
+                ++kidx;
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Build the whole graph as an immutable Graph, in compressed sparse row form.
+     * 
+     * @return  The graph, numbered as this one.
+     */
+    public Graph snapshot(){
+        int count = degree.length;
+        int[] subDegree = Arrays.copyOf(degree, count);
+        int[] subOffset = new int[count+1];
+        for(int vertex=0; vertex<count; ++vertex){
+            subOffset[vertex+1] = subOffset[vertex] + degree[vertex];
+        }
+        int[] subAdjacency = new int[subOffset[count]];
+        for(int vertex=0; vertex<count; ++vertex){
+            System.arraycopy(neighbours[vertex], 0, subAdjacency, subOffset[vertex], degree[vertex]);
+        }
+        return new Graph(subDegree, null, subOffset, subAdjacency);
+    }
+}
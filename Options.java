@@ -0,0 +1,132 @@
+import java.util.HashMap;
+
+/**
+ * Optional arguments of the max clique programs. They follow the filename, seed and number of iterations and are
+ * written as key=value, the same way pj2 takes its own options before the program name. Every program passes the
+ * keys it takes, and any other key is rejected.
+ * 
+ * exact=true       =   after the random restarts, prove the best clique optimal with an exact branch and bound search
+ * verify=true      =   check a binary graph file against its checksum when loading it
+ * mapped=true      =   read a binary graph file in place instead of copying it onto the heap
+ * reduce=false     =   restart on the whole graph instead of shrinking it to the cores that can hold a larger clique
+ * time=<seconds>   =   stop the restarts, and the exact search, once this many seconds have passed since the start
+ * target=<size>    =   stop as soon as a clique of this size is found
+ * checkpoint=<file> =  write the progress of the run to this file every minute
+ * resume=true      =   continue the run whose progress is in the checkpoint file
+ * improve=<moves>  =   carry on from the clique of every restart with this many moves of local search
+ * starts=adaptive  =   start the restarts from every vertex once, then from the vertices that gave large cliques
+ * progress=<seconds> = print the counts of restarts, steps and probes this often
+ * metrics=<file>   =   write the counts of restarts, steps, probes and clique sizes to this file as JSON
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class Options {
+    
+    private HashMap<String,String> values = new HashMap<String,String>();
+    
+    /**
+     * Parse the options from the given arguments.
+     * 
+     * @param args      Program arguments.
+     * @param first     Index of the first option in args, following the positional arguments.
+     * @param keys      Every option the program takes.
+     * @throws IllegalArgumentException     If an option is not written as key=value or the program does not take it.
+     */
+    public Options(String[] args, int first, String... keys){
+        for(int idx=first; idx<args.length; ++idx){
+            int eq = args[idx].indexOf('=');
+            if(eq <= 0){
+                throw new IllegalArgumentException("Invalid option "+args[idx]+", expected key=value");
+            }
+            String key = args[idx].substring(0, eq);
+            boolean known = false;
+            for(String k : keys){
+                known |= k.equals(key);
+            }
+            if(!known){
+                throw new IllegalArgumentException("Unknown option "+key);
+            }
+            values.put(key, args[idx].substring(eq+1));
+        }
+    }
+    
+    /**
+     * If the given option was specified.
+     * 
+     * @param key   Name of the option.
+     * @return      true if it was given, false otherwise.
+     */
+    public boolean has(String key){
+        return values.containsKey(key);
+    }
+    
+    /**
+     * Get an option as a string.
+     * 
+     * @param key           Name of the option.
+     * @param defaultValue  Value to return if the option was not given.
+     * @return              Value of the option.
+     */
+    public String getString(String key, String defaultValue){
+        String value = values.get(key);
+        return value == null ? defaultValue : value;
+    }
+    
+    /**
+     * Get an option as a boolean.
+     * 
+     * @param key           Name of the option.
+     * @param defaultValue  Value to return if the option was not given.
+     * @return              Value of the option.
+     * @throws IllegalArgumentException     If the value is not true or false.
+     */
+    public boolean getBoolean(String key, boolean defaultValue){
+        String value = values.get(key);
+        if(value == null){
+            return defaultValue;
+        }
+        if(value.equals("true")){
+            return true;
+        }
+        if(value.equals("false")){
+            return false;
+        }
+        throw new IllegalArgumentException("Invalid value for "+key+": "+value);
+    }
+    
+    /**
+     * Get an option as an int.
+     * 
+     * @param key           Name of the option.
+     * @param defaultValue  Value to return if the option was not given.
+     * @return              Value of the option.
+     * @throws IllegalArgumentException     If the value is not an integer.
+     */
+    public int getInt(String key, int defaultValue){
+        String value = values.get(key);
+        try{
+            return value == null ? defaultValue : Integer.parseInt(value);
+        }
+        catch(NumberFormatException e){
+            throw new IllegalArgumentException("Invalid value for "+key+": "+value);
+        }
+    }
+    
+    /**
+     * Get an option as a long.
+     * 
+     * @param key           Name of the option.
+     * @param defaultValue  Value to return if the option was not given.
+     * @return              Value of the option.
+     * @throws IllegalArgumentException     If the value is not an integer.
+     */
+    public long getLong(String key, long defaultValue){
+        String value = values.get(key);
+        try{
+            return value == null ? defaultValue : Long.parseLong(value);
+        }
+        catch(NumberFormatException e){
+            throw new IllegalArgumentException("Invalid value for "+key+": "+value);
+        }
+    }
+}
\ No newline at end of file
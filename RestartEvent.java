@@ -0,0 +1,35 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for one random restart, from the start vertex to the clique found. Recorded only while a
+ * recording is running, e.g. with java -XX:StartFlightRecording=filename=run.jfr. Loading this class loads the
+ * recorder's machinery, which takes a noticeable part of a second, so the programs do not touch it unless
+ * Metrics.isRecording says the recorder runs.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+@Name("maxclique.Restart")
+@Label("Restart")
+@Category("Max Clique")
+@Description("One random restart of the greedy clique construction")
+public class RestartEvent extends Event {
+    
+    @Label("Iteration")
+    int iteration;
+    
+    @Label("Start Vertex")
+    int start;
+    
+    @Label("Clique Size")
+    int size;
+    
+    @Label("Construction Steps")
+    int steps;
+    
+    @Label("Adjacency Probes")
+    long probes;
+}
@@ -0,0 +1,196 @@
+import edu.rit.util.Random;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses the vertex every random restart starts from. Two policies are available, chosen with the starts option:
+ * 
+ * random   =   every restart starts from a vertex picked uniformly at random, as the programs always did.
+ * adaptive =   the first restarts given out by the scheduler cover every vertex once, whatever iterations they are
+ *              and whichever threads run them, in decreasing order of core number so that the vertices
+ *              most likely to be in a large clique come first and shrink the graph early. The remaining restarts go
+ *              to the vertices whose first restart gave a large clique: the vertices are grouped by the size of that
+ *              clique, and every restart picks a group with the UCB1 rule of the multi-armed bandit problem, rewarding
+ *              a group for the size of the cliques its restarts find relative to the best clique. A restart that never
+ *              had to break a tie between candidates would give the same clique again, so its vertex is not started
+ *              from a second time, and once no group has a vertex left the remaining restarts are skipped. Vertices
+ *              reduced away are passed over without spending a restart.
+ * 
+ * Safe to share between the threads of a program.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public abstract class StartScheduler {
+    
+    /**
+     * Names of the policies, as given to the starts option.
+     */
+    static final String RANDOM = "random";
+    static final String ADAPTIVE = "adaptive";
+    
+    /**
+     * Create a scheduler.
+     * 
+     * @param policy    RANDOM or ADAPTIVE.
+     * @param cores     Core numbers of the original graph.
+     * @return          The scheduler.
+     * @throws IllegalArgumentException     If the policy is unknown.
+     */
+    public static StartScheduler create(String policy, CoreDecomposition cores){
+        if(policy.equals(RANDOM)){
+            return new Uniform();
+        }
+        if(policy.equals(ADAPTIVE)){
+            return new Adaptive(cores);
+        }
+        throw new IllegalArgumentException("Invalid starts policy "+policy+", expected "+RANDOM+" or "+ADAPTIVE);
+    }
+    
+    /**
+     * Choose the vertex a restart starts from.
+     * 
+     * @param graph     Graph the restart runs on, possibly reduced.
+     * @param prng      Pseudorandom number generator of the thread.
+     * @return          A vertex of graph, -1 if the restart should be skipped.
+     */
+    public abstract int next(Graph graph, Random prng);
+    
+    /**
+     * Report the clique a restart found, or that it was skipped because its vertex cannot be in a larger clique.
+     * 
+     * @param start             Vertex the restart started from, numbered as in the original graph.
+     * @param size              Size of the clique found, 0 if the restart was skipped.
+     * @param deterministic     true if starting from the vertex again would give the same clique.
+     */
+    public void report(int start, int size, boolean deterministic){
+    }
+    
+    /**
+     * Starts from vertices picked uniformly at random.
+     */
+    private static class Uniform extends StartScheduler {
+        
+        @Override
+        public int next(Graph graph, Random prng){
+            return prng.nextInt(graph.getNumberOfVertices());
+        }
+    }
+    
+    /**
+     * Covers every vertex once in decreasing order of core number, then spends the remaining restarts on the groups of
+     * vertices that do best.
+     */
+    private static class Adaptive extends StartScheduler {
+        
+        private int[] order;            //  Vertices of the original graph in degeneracy order
+        private AtomicInteger cursor;   //  Position in order of the next vertex to cover
+        private boolean[] covered;      //  If every vertex of the original graph has reported its first restart
+        private int[] group;            //  Group every vertex of the original graph is in, -1 if none
+        private int[][] members;        //  Vertices in every group, indexed by the size of their first clique
+        private int[] count;            //  Number of vertices in every group
+        private long[] pulls;           //  Number of restarts given to every group
+        private double[] reward;        //  Sum of the rewards of the restarts given to every group
+        private long totalPulls;        //  Number of restarts given to any group
+        private int best;               //  Size of the largest clique reported
+        
+        /**
+         * Set up the schedule.
+         * 
+         * @param cores     Core numbers of the original graph.
+         */
+        Adaptive(CoreDecomposition cores){
+            order = cores.getOrder();
+            cursor = new AtomicInteger();
+            covered = new boolean[order.length];
+            group = new int[order.length];
+            Arrays.fill(group, -1);
+            members = new int[cores.getDegeneracy()+2][];
+            count = new int[members.length];
+            pulls = new long[members.length];
+            reward = new double[members.length];
+        }
+        
+        @Override
+        public int next(Graph graph, Random prng){
+            //Cover every vertex once, the last peeled off in the degeneracy order first. Vertices reduced away are
+            //passed over without spending the restart. The threads share the cursor, since the iterations each one
+            //runs need not start at 0.
+            while(cursor.get() < order.length){
+                int position = cursor.getAndIncrement();
+                if(position < order.length){
+                    int vertex = graph.getIndex(order[order.length-1-position]);
+                    if(vertex != -1){
+                        return vertex;
+                    }
+                }
+            }
+            synchronized(this){
+                while(true){
+                    //Once every group is empty, the vertices left would only give the cliques they gave before
+                    int chosen = choose();
+                    if(chosen == -1){
+                        return -1;
+                    }
+                    
+                    //Drop vertices of the group that have been reduced away until one is left in the graph
+                    int idx = prng.nextInt(count[chosen]);
+                    int vertex = graph.getIndex(members[chosen][idx]);
+                    if(vertex != -1){
+                        ++pulls[chosen];
+                        ++totalPulls;
+                        return vertex;
+                    }
+                    group[members[chosen][idx]] = -1;
+                    members[chosen][idx] = members[chosen][--count[chosen]];
+                }
+            }
+        }
+        
+        /**
+         * Choose the group to start the next restart from by the UCB1 rule. Groups not yet given a restart come
+         * first, those of larger cliques before smaller.
+         * 
+         * @return  The group, -1 if every group is empty.
+         */
+        private int choose(){
+            int chosen = -1;
+            double chosenScore = 0;
+            for(int size=count.length-1; size>=0; --size){
+                if(count[size] == 0){
+                    continue;
+                }
+                if(pulls[size] == 0){
+                    return size;
+                }
+                double score = reward[size]/pulls[size] + Math.sqrt(2*Math.log(totalPulls)/pulls[size]);
+                if(chosen == -1 || score > chosenScore){
+                    chosen = size;
+                    chosenScore = score;
+                }
+            }
+            return chosen;
+        }
+        
+        @Override
+        public synchronized void report(int start, int size, boolean deterministic){
+            best = Math.max(best, size);
+            if(!covered[start]){
+                //First restart from the vertex. Group it by the size of its clique unless that would come out again.
+                covered[start] = true;
+                if(!deterministic){
+                    if(members[size] == null){
+                        members[size] = new int[16];
+                    }
+                    else if(count[size] == members[size].length){
+                        members[size] = Arrays.copyOf(members[size], 2*count[size]);
+                    }
+                    members[size][count[size]++] = start;
+                    group[start] = size;
+                }
+            }
+            else if(group[start] != -1){
+                reward[group[start]] += (double)size/best;
+            }
+        }
+    }
+}
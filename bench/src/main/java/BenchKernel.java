@@ -0,0 +1,98 @@
+import edu.rit.util.Random;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Implements the benchmark kernel on top of the program classes. A restart is the GreedyRestart of MaxCliqueSmp on
+ * the whole graph, with no reduction, budget or checkpoint, so that every restart does the same kind of work.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class BenchKernel implements benchmarks.Kernel {
+    
+    /**
+     * State of one thread's restarts.
+     */
+    private static class Restarts {
+        
+        private Graph graph;            //  Graph restarted on
+        private Random prng;            //  Pseudorandom number generator of the thread
+        private GreedyRestart restart;  //  Workspace of the thread's restarts
+        private Clique best;            //  Largest clique found by the thread
+        
+        Restarts(Graph _graph, long seed){
+            graph = _graph;
+            prng = new Random(seed);
+            restart = new GreedyRestart(graph.getNumberOfVertices(), graph.getMaxDegree());
+            best = new Clique(graph.getNumberOfVertices());
+        }
+    }
+    
+    @Override
+    public Object load(File file, int threads) throws IOException{
+        return new GraphLoader(file, threads).load();
+    }
+    
+    @Override
+    public int getNumberOfVertices(Object graph){
+        return ((Graph) graph).getNumberOfVertices();
+    }
+    
+    @Override
+    public Object restarts(Object graph, long seed){
+        return new Restarts((Graph) graph, seed);
+    }
+    
+    @Override
+    public int restart(Object state){
+        Restarts restarts = (Restarts) state;
+        Graph graph = restarts.graph;
+        int start = restarts.prng.nextInt(graph.getNumberOfVertices());
+        restarts.best.reduce(restarts.restart.run(graph, start, restarts.prng, 0));
+        return restarts.best.getSize();
+    }
+    
+    @Override
+    public Object clique(int numberOfVertices, int[] vertices){
+        Clique clique = new Clique(numberOfVertices);
+        for(int vertex : vertices){
+            clique.add(vertex);
+        }
+        return clique;
+    }
+    
+    @Override
+    public void set(Object clique, Object from){
+        ((Clique) clique).set((Clique) from);
+    }
+    
+    @Override
+    public void reduce(Object clique, Object from){
+        ((Clique) clique).reduce((Clique) from);
+    }
+    
+    @Override
+    public int getSize(Object clique){
+        return ((Clique) clique).getSize();
+    }
+    
+    @Override
+    public Object bitKernel(String name){
+        return BitKernel.create(name);
+    }
+    
+    @Override
+    public boolean and(Object bits, long[] a, long[] b, long[] result){
+        return ((BitKernel) bits).and(a, b, result, result.length);
+    }
+    
+    @Override
+    public void andNot(Object bits, long[] a, long[] b, long[] result){
+        ((BitKernel) bits).andNot(a, b, result, 0, result.length);
+    }
+    
+    @Override
+    public int andCount(Object bits, long[] a, long[] b){
+        return ((BitKernel) bits).andCount(a, b, a.length);
+    }
+}
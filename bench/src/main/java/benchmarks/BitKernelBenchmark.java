@@ -0,0 +1,82 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the bitset operations of BranchAndBound and CliqueEnumerator with the scalar kernel, on bitsets of
+ * subproblems from 256 to 20000 vertices. VectorBitKernelBenchmark runs the same operations with the vector kernel; it
+ * is only built with the vector profile, on JDK 17 or later, so that only its trials fork with the incubator module.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BitKernelBenchmark {
+    
+    @Param({"4", "16", "64", "313"})
+    public int words;
+    
+    private Kernel bench;
+    private Object bits;
+    private long[] a;
+    private long[] b;
+    private long[] result;
+    
+    @Setup
+    public void setup(){
+        bench = Graphs.kernel();
+        bits = bench.bitKernel(kernel());
+        if(bits == null){
+            throw new IllegalStateException("The "+kernel()+" kernel cannot be loaded in this JVM");
+        }
+        Random prng = new Random(42);
+        a = new long[words];
+        b = new long[words];
+        result = new long[words];
+        for(int w=0; w<words; ++w){
+            a[w] = prng.nextLong();
+            b[w] = prng.nextLong();
+        }
+    }
+    
+    /**
+     * Name of the kernel to measure, as bitKernel takes it.
+     * 
+     * @return      The kernel name.
+     */
+    protected String kernel(){
+        return "scalar";
+    }
+    
+    @Benchmark
+    public boolean and(){
+        return bench.and(bits, a, b, result);
+    }
+    
+    @Benchmark
+    public long[] andNot(){
+        bench.andNot(bits, a, b, result);
+        return result;
+    }
+    
+    @Benchmark
+    public int andCount(){
+        return bench.andCount(bits, a, b);
+    }
+}
@@ -0,0 +1,75 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of Clique.set and Clique.reduce, which every thread calls whenever it finds a better clique and pj2 calls when
+ * it combines the threads' cliques. Both should take time in the size of the clique, not of the graph.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CliqueBenchmark {
+    
+    @Param({"1000", "1000000"})
+    public int numberOfVertices;
+    
+    @Param({"10", "100"})
+    public int size;
+    
+    private Kernel kernel;
+    private Object clique;
+    private Object smaller;
+    private Object larger;
+    
+    @Setup
+    public void setup(){
+        kernel = Graphs.kernel();
+        Random prng = new Random(42);
+        int[] vertices = new int[size+1];
+        for(int idx=0; idx<vertices.length; ++idx){
+            vertices[idx] = prng.nextInt(numberOfVertices);
+        }
+        clique = kernel.clique(numberOfVertices, vertices);
+        smaller = kernel.clique(numberOfVertices, Arrays.copyOf(vertices, size));
+        larger = kernel.clique(numberOfVertices, vertices);
+    }
+    
+    @Benchmark
+    public int set(){
+        kernel.set(clique, larger);
+        return kernel.getSize(clique);
+    }
+    
+    @Benchmark
+    public int reduceKeep(){
+        kernel.reduce(clique, smaller);
+        return kernel.getSize(clique);
+    }
+    
+    @Benchmark
+    public int reduceCopy(){
+        //Shrink the clique first so that the reduction has to copy
+        kernel.set(clique, smaller);
+        kernel.reduce(clique, larger);
+        return kernel.getSize(clique);
+    }
+}
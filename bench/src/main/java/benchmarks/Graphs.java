@@ -0,0 +1,107 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+
+/**
+ * Random graphs for the benchmarks, and the kernel to run them on. A graph is named by a parameter string
+ * "<vertices>:<density>" and written once as an edge list to the temporary directory, where later trials find it.
+ * Every edge is present with the given density independently of the others, drawn from a fixed seed so every version
+ * benchmarks the same graph.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class Graphs {
+    
+    /**
+     * Graphs the benchmarks run on by default.
+     */
+    static final String SMALL_SPARSE = "2000:0.01";
+    static final String SMALL_DENSE = "2000:0.5";
+    static final String LARGE_SPARSE = "20000:0.001";
+    static final String LARGE = "20000:0.01";
+    
+    private static final long SEED = 142857;
+    
+    private Graphs(){
+    }
+    
+    /**
+     * Load the kernel that reaches the program classes.
+     * 
+     * @return  The kernel.
+     */
+    static Kernel kernel(){
+        try{
+            return (Kernel) Class.forName("BenchKernel").getDeclaredConstructor().newInstance();
+        }
+        catch(ReflectiveOperationException e){
+            throw new IllegalStateException("BenchKernel is not on the class path", e);
+        }
+    }
+    
+    /**
+     * Get the edge list file of a graph, generating it if it does not exist yet.
+     * 
+     * @param spec          "<vertices>:<density>".
+     * @return              The file.
+     * @throws IOException  If the file cannot be written.
+     */
+    static synchronized File file(String spec) throws IOException{
+        int colon = spec.indexOf(':');
+        int n = Integer.parseInt(spec.substring(0, colon));
+        double density = Double.parseDouble(spec.substring(colon+1));
+        File directory = new File(System.getProperty("java.io.tmpdir"), "maxclique-bench");
+        directory.mkdirs();
+        File file = new File(directory, n+"-"+density+".txt");
+        if(!file.exists()){
+            File temporary = new File(directory, file.getName()+".tmp");
+            write(temporary, n, density);
+            if(!temporary.renameTo(file)){
+                throw new IOException("Cannot rename "+temporary+" to "+file);
+            }
+        }
+        return file;
+    }
+    
+    /**
+     * Write a random graph as an edge list. The pairs of vertices are visited in order and the gap to the next edge
+     * is drawn from the geometric distribution, so sparse graphs take time in their edges rather than in all pairs.
+     * 
+     * @param file          File to write.
+     * @param n             Number of vertices.
+     * @param density       Probability of every edge.
+     * @throws IOException  If the file cannot be written.
+     */
+    private static void write(File file, int n, double density) throws IOException{
+        Random prng = new Random(SEED);
+        long pairs = (long) n*(n-1)/2;
+        long[] edges = new long[(int) Math.min(Integer.MAX_VALUE-8, (long) (pairs*density*1.1) + 16)];
+        int count = 0;
+        double logMiss = Math.log(1 - density);
+        for(long pair = -1;;){
+            pair += density >= 1 ? 1 : 1 + (long) (Math.log(1 - prng.nextDouble())/logMiss);
+            if(pair >= pairs || count == edges.length){
+                break;
+            }
+            edges[count++] = pair;
+        }
+        try(PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)))){
+            out.println(n+" "+count);
+            int row = 0;
+            long rowStart = 0;
+            for(int idx=0; idx<count; ++idx){
+                //Pair p is (row, column) in the upper triangle, row by row
+                while(edges[idx] >= rowStart + (n-1-row)){
+                    rowStart += n-1-row;
+                    ++row;
+                }
+                out.println(row+" "+(row+1+(edges[idx]-rowStart)));
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * What the benchmarks measure of the max clique programs. The programs are in the default package, which classes in
+ * a package cannot name, so the benchmarks reach them through this interface, implemented by BenchKernel in the
+ * default package and loaded by name once per trial.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public interface Kernel {
+    
+    /**
+     * Load a graph file.
+     * 
+     * @param file          Edge list or binary graph file.
+     * @param threads       Number of threads to parse an edge list with.
+     * @return              The graph.
+     * @throws IOException  If the file cannot be read.
+     */
+    Object load(File file, int threads) throws IOException;
+    
+    /**
+     * Get the number of vertices of a graph.
+     * 
+     * @param graph     Graph returned by load.
+     * @return          Number of vertices.
+     */
+    int getNumberOfVertices(Object graph);
+    
+    /**
+     * Set up one thread's random restarts on a graph, as a thread of MaxCliqueSmp does.
+     * 
+     * @param graph     Graph returned by load.
+     * @param seed      Seed of the thread's pseudorandom number generator.
+     * @return          State of the restarts, to pass to restart.
+     */
+    Object restarts(Object graph, long seed);
+    
+    /**
+     * Do one greedy random restart.
+     * 
+     * @param restarts  State returned by restarts.
+     * @return          Size of the best clique found by these restarts so far.
+     */
+    int restart(Object restarts);
+    
+    /**
+     * Create a clique.
+     * 
+     * @param numberOfVertices  Number of vertices of the graph.
+     * @param vertices          Vertices of the clique.
+     * @return                  The clique.
+     */
+    Object clique(int numberOfVertices, int[] vertices);
+    
+    /**
+     * Copy one clique into another, as Clique.set does.
+     * 
+     * @param clique    Clique to set.
+     * @param from      Clique to copy.
+     */
+    void set(Object clique, Object from);
+    
+    /**
+     * Keep the larger of two cliques, as Clique.reduce does.
+     * 
+     * @param clique    Clique to reduce into.
+     * @param from      Clique to compare with.
+     */
+    void reduce(Object clique, Object from);
+    
+    /**
+     * Get the size of a clique.
+     * 
+     * @param clique    The clique.
+     * @return          Its size.
+     */
+    int getSize(Object clique);
+    
+    /**
+     * Create a bitset kernel by name, as BitKernel.create does.
+     * 
+     * @param name  scalar or vector.
+     * @return      The kernel, or null if it cannot be loaded in this JVM.
+     */
+    Object bitKernel(String name);
+    
+    /**
+     * Intersect two bitsets, as the branching of BranchAndBound does.
+     * 
+     * @param bits      Kernel returned by bitKernel.
+     * @param a         First bitset.
+     * @param b         Second bitset.
+     * @param result    Bitset to store a AND b in.
+     * @return          true if the intersection is not empty.
+     */
+    boolean and(Object bits, long[] a, long[] b, long[] result);
+    
+    /**
+     * Remove the members of one bitset from another, as the colouring of BranchAndBound does.
+     * 
+     * @param bits      Kernel returned by bitKernel.
+     * @param a         Bitset to remove from.
+     * @param b         Bitset to remove.
+     * @param result    Bitset to store a AND NOT b in.
+     */
+    void andNot(Object bits, long[] a, long[] b, long[] result);
+    
+    /**
+     * Count the members of the intersection of two bitsets, as the pivoting of CliqueEnumerator does.
+     * 
+     * @param bits      Kernel returned by bitKernel.
+     * @param a         First bitset.
+     * @param b         Second bitset.
+     * @return          Number of bits set in a AND b.
+     */
+    int andCount(Object bits, long[] a, long[] b);
+}
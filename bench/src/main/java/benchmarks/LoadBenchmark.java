@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to load an edge list into a graph, as GraphLoader does for every program. Divide the number of edges of the
+ * graph by the time to get the load throughput in edges per second.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LoadBenchmark {
+    
+    @Param({Graphs.SMALL_SPARSE, Graphs.SMALL_DENSE, Graphs.LARGE_SPARSE, Graphs.LARGE})
+    public String graph;
+    
+    @Param({"1", "4"})
+    public int threads;
+    
+    private Kernel kernel;
+    private File file;
+    
+    @Setup
+    public void setup() throws Exception{
+        kernel = Graphs.kernel();
+        file = Graphs.file(graph);
+    }
+    
+    @Benchmark
+    public Object load() throws Exception{
+        return kernel.load(file, threads);
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Greedy random restarts per second per thread. Every benchmark thread has its own restarts on a shared graph, like
+ * the threads of MaxCliqueSmp, so running with -t N shows how the throughput of one thread holds up with N of them.
+ * Run with -prof gc for the bytes allocated per restart, which should be none.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RestartBenchmark {
+    
+    /**
+     * The graph, loaded once per trial and shared by all threads.
+     */
+    @State(Scope.Benchmark)
+    public static class Shared {
+        
+        @Param({Graphs.SMALL_SPARSE, Graphs.SMALL_DENSE, Graphs.LARGE_SPARSE, Graphs.LARGE})
+        public String graph;
+        
+        Kernel kernel;
+        Object loaded;
+        final AtomicLong seeds = new AtomicLong(42);
+        
+        @Setup
+        public void setup() throws Exception{
+            kernel = Graphs.kernel();
+            loaded = kernel.load(Graphs.file(graph), Runtime.getRuntime().availableProcessors());
+        }
+    }
+    
+    /**
+     * The restarts of one thread.
+     */
+    @State(Scope.Thread)
+    public static class PerThread {
+        
+        Object restarts;
+        
+        @Setup
+        public void setup(Shared shared){
+            restarts = shared.kernel.restarts(shared.loaded, shared.seeds.getAndIncrement());
+        }
+    }
+    
+    @Benchmark
+    public int restart(Shared shared, PerThread thread){
+        return shared.kernel.restart(thread.restarts);
+    }
+}
@@ -0,0 +1,88 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time for a fixed number of restarts split evenly over 1 to N threads, the loop of MaxCliqueSmp: every thread keeps
+ * its own best clique and the best of the threads is taken at the end. Ideal scaling halves the time whenever the
+ * number of threads doubles.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScalingBenchmark {
+    
+    /**
+     * Number of restarts per operation, over all threads.
+     */
+    static final int RESTARTS = 4096;
+    
+    @Param({Graphs.SMALL_DENSE, Graphs.LARGE})
+    public String graph;
+    
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+    
+    private Kernel kernel;
+    private ExecutorService pool;
+    private List<Callable<Integer>> loops;
+    
+    @Setup
+    public void setup() throws Exception{
+        kernel = Graphs.kernel();
+        Object loaded = kernel.load(Graphs.file(graph), Runtime.getRuntime().availableProcessors());
+        pool = Executors.newFixedThreadPool(threads);
+        loops = new ArrayList<Callable<Integer>>();
+        for(int rank=0; rank<threads; ++rank){
+            final Object restarts = kernel.restarts(loaded, 42 + rank);
+            final int count = RESTARTS/threads + (rank < RESTARTS%threads ? 1 : 0);
+            loops.add(new Callable<Integer>(){
+                @Override
+                public Integer call(){
+                    int best = 0;
+                    for(int iter=0; iter<count; ++iter){
+                        best = kernel.restart(restarts);
+                    }
+                    return best;
+                }
+            });
+        }
+    }
+    
+    @TearDown
+    public void tearDown(){
+        pool.shutdownNow();
+    }
+    
+    @Benchmark
+    public int restarts() throws Exception{
+        int best = 0;
+        for(Future<Integer> result : pool.invokeAll(loops)){
+            best = Math.max(best, result.get());
+        }
+        return best;
+    }
+}
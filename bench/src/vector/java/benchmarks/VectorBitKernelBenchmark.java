@@ -0,0 +1,18 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * BitKernelBenchmark with the vector kernel. Built only with the vector profile, and the only benchmark whose forks
+ * add the incubator module, so that the other benchmarks still run on JVMs that do not know the option.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class VectorBitKernelBenchmark extends BitKernelBenchmark {
+    
+    @Override
+    protected String kernel(){
+        return "vector";
+    }
+}
@@ -0,0 +1,70 @@
+import edu.rit.util.Random;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Checks that a run resumed from a checkpoint skips exactly the iterations completed before, draws the same numbers
+ * the run would have drawn had it not stopped and keeps the best clique found before.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class CheckpointTest {
+    
+    /**
+     * Run the checks.
+     * 
+     * @throws Exception    If the checkpoint cannot be written or read.
+     */
+    static void run() throws Exception{
+        File file = File.createTempFile("run", ".ckpt");
+        try{
+            //Two ranks complete some iterations, drawing numbers, and one finds a clique
+            Checkpoint checkpoint = Checkpoint.open(file.getPath(), false, 42, 100, 2);
+            Random rank0 = checkpoint.random(0, 1000);
+            Random rank1 = checkpoint.random(1, 2000);
+            for(int iter=0; iter<10; ++iter){
+                rank0.nextInt(50);
+                checkpoint.completed(0, iter, rank0);
+            }
+            for(int iter=50; iter<55; ++iter){
+                rank1.nextInt(50);
+                rank1.nextBoolean();
+                checkpoint.completed(1, iter, rank1);
+            }
+            rank1.nextInt(50);
+            checkpoint.completed(1, 70, rank1);
+            Clique clique = new Clique(100);
+            clique.add(3);
+            clique.add(17);
+            clique.add(29);
+            checkpoint.improved(1, clique);
+            checkpoint.write();
+            
+            //The resumed run continues both generators where they stopped
+            Checkpoint resumed = Checkpoint.open(file.getPath(), true, 42, 100, 2);
+            for(int iter=0; iter<100; ++iter){
+                boolean done = iter < 10 || iter >= 50 && iter < 55 || iter == 70;
+                TestGraphs.check(resumed.isCompleted(iter) == done, "Iteration "+iter+" wrongly "
+                        +(done ? "redone" : "skipped"));
+            }
+            int[] expected = {rank0.nextInt(1000), rank1.nextInt(1000)};
+            TestGraphs.check(resumed.random(0, 1000).nextInt(1000) == expected[0]
+                    && resumed.random(1, 2000).nextInt(1000) == expected[1], "Generator not resumed where it stopped");
+            Clique best = new Clique(100);
+            best.add(5);
+            resumed.restore(best);
+            TestGraphs.check(best.getSize() == 3 && best.isVertexInClique(17), "Best clique not restored");
+            
+            //A checkpoint of another run is refused
+            try{
+                Checkpoint.open(file.getPath(), true, 43, 100, 2);
+                TestGraphs.check(false, "Resumed a run with a different seed");
+            }
+            catch(IOException e){
+            }
+        }
+        finally{
+            file.delete();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+import java.util.Random;
+
+/**
+ * Checks that one CliqueEngine can solve again and again: a budget spent by one solve must not stop the next, and a
+ * cancel reaches the solve it was meant for however close to its start it comes.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class EngineTest {
+    
+    /**
+     * Run the checks.
+     * 
+     * @throws Exception    If a graph cannot be written or loaded.
+     */
+    static void run() throws Exception{
+        //A triangle reaches both its colouring bound and the target on the first restart
+        TestGraphs triangle = new TestGraphs(3, 1, new Random(0));
+        CliqueEngine engine = new CliqueEngine(triangle.load(false, false));
+        engine.setThreads(2);
+        engine.setBudget(new Budget(Long.MAX_VALUE, 3));
+        for(int solve=0; solve<3; ++solve){
+            TestGraphs.check(engine.solve().getSize() == 3, "Solve "+solve+" of a triangle did not find it");
+            TestGraphs.check(engine.getReason() != null, "Solve "+solve+" did not say why it stopped early");
+        }
+        
+        //A cancel before solve starts stops that solve, and only that one
+        Random prng = new Random(112358);
+        TestGraphs reference = new TestGraphs(TestGraphs.MAX_BRUTE, 0.5, prng);
+        engine = new CliqueEngine(reference.load(false, false));
+        engine.setIterations(100);
+        engine.cancel();
+        TestGraphs.check(engine.solve().getSize() == 0 && engine.isCancelled(), "Cancel before solve was lost");
+        Clique best = engine.solve();
+        TestGraphs.check(best.getSize() > 0 && !engine.isCancelled(), "Cancel stopped the next solve too");
+        TestGraphs.check(reference.isClique(best.getVertices()), "Not a clique");
+    }
+}
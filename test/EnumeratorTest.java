@@ -0,0 +1,108 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Checks CliqueEnumerator against brute force on random graphs: the maximum cliques, the maximal cliques of at least
+ * a given size and the sizes of the k largest must be exactly those found by trying every subset.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class EnumeratorTest {
+    
+    /**
+     * Sink that keeps the cliques as bit masks, failing on any found twice.
+     */
+    static class Collect implements CliqueEnumerator.Sink {
+        
+        HashSet<Integer> cliques = new HashSet<Integer>();  //  Cliques found
+        ArrayList<Integer> sizes = new ArrayList<Integer>(); //  Their sizes, in the order found
+        
+        @Override
+        public void accept(int[] vertices) throws IOException{
+            TestGraphs.check(cliques.add(TestGraphs.mask(vertices)), "Clique reported twice");
+            sizes.add(vertices.length);
+        }
+    }
+    
+    /**
+     * Run the checks.
+     * 
+     * @throws Exception    If a graph cannot be written or loaded.
+     */
+    static void run() throws Exception{
+        Random prng = new Random(271828);
+        for(int trial=0; trial<60; ++trial){
+            TestGraphs reference = new TestGraphs(1 + prng.nextInt(TestGraphs.MAX_BRUTE), prng.nextDouble(), prng);
+            ArrayList<Integer> maximal = reference.maximalCliques();
+            int largest = reference.cliqueNumber();
+            int size = 1 + prng.nextInt(Math.max(1, largest));
+            HashSet<Integer> maximum = new HashSet<Integer>();
+            HashSet<Integer> atLeast = new HashSet<Integer>();
+            ArrayList<Integer> sizes = new ArrayList<Integer>();
+            for(int clique : maximal){
+                if(Integer.bitCount(clique) == largest){
+                    maximum.add(clique);
+                }
+                if(Integer.bitCount(clique) >= size){
+                    atLeast.add(clique);
+                }
+                sizes.add(Integer.bitCount(clique));
+            }
+            Collections.sort(sizes, Collections.reverseOrder());
+            
+            for(boolean sparse : new boolean[]{false, true}){
+                CliqueEnumerator enumerator = new CliqueEnumerator(reference.load(sparse, false));
+                for(int threads : new int[]{1, 4}){
+                    Collect sink = new Collect();
+                    enumerator.maximum(sink, threads);
+                    TestGraphs.check(sink.cliques.equals(maximum), "Trial "+trial+": wrong maximum cliques");
+                    
+                    sink = new Collect();
+                    enumerator.maximal(size, sink, threads);
+                    TestGraphs.check(sink.cliques.equals(atLeast), "Trial "+trial+": wrong maximal cliques of at least "
+                            +size+" vertices");
+                    
+                    int k = 1 + prng.nextInt(maximal.size());
+                    sink = new Collect();
+                    enumerator.top(k, sink, threads);
+                    TestGraphs.check(sink.sizes.equals(sizes.subList(0, k)), "Trial "+trial+": wrong sizes of the "+k
+                            +" largest cliques");
+                    TestGraphs.check(maximal.containsAll(sink.cliques), "Trial "+trial+": top gave a clique that is"
+                            +" not maximal");
+                }
+            }
+        }
+        
+        //Sparse graphs of a few hundred vertices with a few hubs. A hub has many more earlier neighbours than later
+        //ones, so the excluded vertices of its subproblem span several words and its candidates only one.
+        for(int trial=0; trial<6; ++trial){
+            int numberOfVertices = 150 + prng.nextInt(150);
+            TestGraphs reference = new TestGraphs(numberOfVertices, 0.02 + 0.06*prng.nextDouble(), prng);
+            for(int hub=0; hub<3; ++hub){
+                for(int vertex=0; vertex<numberOfVertices; ++vertex){
+                    if(vertex != hub && prng.nextBoolean()){
+                        reference.setEdge(hub, vertex, true);
+                    }
+                }
+            }
+            HashSet<String> expected = reference.maximalCliques(3);
+            for(boolean sparse : new boolean[]{false, true}){
+                final HashSet<String> found = new HashSet<String>();
+                new CliqueEnumerator(reference.load(sparse, false)).maximal(3, new CliqueEnumerator.Sink(){
+                    @Override
+                    public void accept(int[] vertices){
+                        int[] sorted = vertices.clone();
+                        Arrays.sort(sorted);
+                        found.add(Arrays.toString(sorted));
+                    }
+                }, 4);
+                TestGraphs.check(found.equals(expected), "Large trial "+trial+": found "+found.size()
+                        +" maximal cliques of at least 3 vertices, there are "+expected.size());
+            }
+        }
+    }
+}
\ No newline at end of file
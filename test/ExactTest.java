@@ -0,0 +1,46 @@
+import java.util.Random;
+
+/**
+ * Checks BranchAndBound against brute force on random graphs of every density, stored dense and sparse, searched on
+ * one thread and on several.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class ExactTest {
+    
+    /**
+     * Run the checks.
+     * 
+     * @throws Exception    If a graph cannot be written or loaded.
+     */
+    static void run() throws Exception{
+        Random prng = new Random(142857);
+        for(int trial=0; trial<200; ++trial){
+            TestGraphs reference = new TestGraphs(1 + prng.nextInt(TestGraphs.MAX_BRUTE), prng.nextDouble(), prng);
+            int expected = reference.cliqueNumber();
+            for(boolean sparse : new boolean[]{false, true}){
+                Graph graph = reference.load(sparse, false);
+                for(int threads : new int[]{1, 4}){
+                    Clique found = new BranchAndBound(graph).solve(new Clique(graph.getNumberOfVertices()), threads);
+                    TestGraphs.check(found.getSize() == expected, "Trial "+trial+": found a clique of "
+                            +found.getSize()+" vertices, the maximum is "+expected);
+                    TestGraphs.check(reference.isClique(found.getVertices()), "Trial "+trial+": not a clique");
+                }
+                
+                //Beating one vertex fewer than the maximum finds a maximum clique; beating the maximum finds none
+                Clique larger = new BranchAndBound(graph).solveLarger(expected-1, 2);
+                TestGraphs.check(larger.getSize() == expected, "Trial "+trial+": solveLarger missed the maximum");
+                TestGraphs.check(new BranchAndBound(graph).solveLarger(expected, 2).getSize() == 0,
+                        "Trial "+trial+": solveLarger beat the maximum");
+                
+                //A target already reached by the restarts must not stop the exact search short of a proof
+                Budget budget = new Budget(Long.MAX_VALUE, 1);
+                budget.isSpent(1);
+                BranchAndBound search = new BranchAndBound(graph);
+                search.setBudget(budget);
+                TestGraphs.check(search.solve(new Clique(graph.getNumberOfVertices()), 2).getSize() == expected
+                        && search.isProven() && search.getReason() == null, "Trial "+trial+": stopped at the target");
+            }
+        }
+    }
+}
\ No newline at end of file
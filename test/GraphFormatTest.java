@@ -0,0 +1,159 @@
+import edu.rit.io.InStream;
+import edu.rit.io.OutStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Round trips of graphs through every form they are stored or sent in: the binary graph file read onto the heap and
+ * mapped in place, and the encoding sent through tuple space. The graph that comes back must answer every question
+ * the searches ask exactly as the one that went in. Edge lists with numbers too large for an int must be refused.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class GraphFormatTest {
+    
+    /**
+     * Run the checks.
+     * 
+     * @throws Exception    If a graph cannot be written or loaded.
+     */
+    static void run() throws Exception{
+        Random prng = new Random(314159);
+        
+        //Variable length integers, at every boundary between encoded lengths
+        byte[] buffer = new byte[5];
+        for(int value : new int[]{0, 1, 127, 128, 16383, 16384, 2097151, 2097152, 268435455, 268435456,
+                Integer.MAX_VALUE}){
+            int length = Graph.putVarint(buffer, 0, value);
+            int[] position = new int[1];
+            TestGraphs.check(Graph.getVarint(buffer, position) == value && position[0] == length,
+                    "Varint "+value+" did not round trip");
+        }
+        
+        //Adjacency matrices too large for a single array
+        TestGraphs.check(Graph.fitsMatrix(370000) && !Graph.fitsMatrix(400000), "Wrong largest adjacency matrix");
+        
+        //Edge lists with numbers too large for an int, which must not wrap around into valid vertices
+        rejected("4294967299 0\n0 1\n", 1);
+        rejected("5 3\n0 1\n1 2\n2 18446744073709551617\n", 4);
+        rejected("5 3\n0 1\n4294967297 2\n", 3);
+        
+        for(int trial=0; trial<40; ++trial){
+            int numberOfVertices = 1 + prng.nextInt(trial < 20 ? 70 : 600);
+            TestGraphs reference = new TestGraphs(numberOfVertices, prng.nextDouble()*prng.nextDouble(), prng);
+            for(boolean sparse : new boolean[]{false, true}){
+                Graph graph = reference.load(sparse, prng.nextBoolean());
+                TestGraphs.check(graph.isSparse() == sparse, "Trial "+trial+": stored in the wrong form");
+                File file = File.createTempFile("graph", ".bin");
+                try{
+                    GraphFile.write(graph, file);
+                    TestGraphs.check(GraphFile.isGraphFile(file), "Trial "+trial+": not recognised as binary");
+                    same(graph, GraphFile.read(file, true), "Trial "+trial+" read");
+                    same(graph, GraphFile.map(file, true), "Trial "+trial+" mapped");
+                    same(graph, new GraphLoader(file, 1).load(), "Trial "+trial+" loaded");
+                }
+                finally{
+                    file.delete();
+                }
+                same(graph, send(graph), "Trial "+trial+" sent");
+                
+                //An induced graph has to keep its labels through tuple space
+                int[] kept = new int[numberOfVertices];
+                int count = 0;
+                for(int vertex=0; vertex<numberOfVertices; ++vertex){
+                    if(prng.nextBoolean()){
+                        kept[count++] = vertex;
+                    }
+                }
+                Graph induced = graph.induce(Arrays.copyOf(kept, count));
+                same(induced, send(induced), "Trial "+trial+" induced and sent");
+            }
+        }
+    }
+    
+    /**
+     * Check that an edge list is refused with an error that points at the given line.
+     * 
+     * @param text          Contents of the edge list.
+     * @param line          Number of the line with the error.
+     * @throws Exception    If the file cannot be written.
+     */
+    static void rejected(String text, int line) throws Exception{
+        File file = File.createTempFile("graph", ".txt");
+        try{
+            FileWriter out = new FileWriter(file);
+            out.write(text);
+            out.close();
+            new GraphLoader(file, 2).load();
+            TestGraphs.check(false, "Loaded a graph with a number out of range on line "+line);
+        }
+        catch(IOException e){
+            TestGraphs.check(e.getMessage().contains("line "+line+" "), "Wrong error for line "+line+": "
+                    +e.getMessage());
+        }
+        finally{
+            file.delete();
+        }
+    }
+    
+    /**
+     * Send a graph through the tuple encoding and read it back.
+     * 
+     * @param graph         The graph.
+     * @return              The graph read back.
+     * @throws Exception    Not expected.
+     */
+    static Graph send(Graph graph) throws Exception{
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutStream out = new OutStream(bytes);
+        graph.writeOut(out);
+        out.flush();
+        Graph received = new Graph();
+        received.readIn(new InStream(new ByteArrayInputStream(bytes.toByteArray())));
+        return received;
+    }
+    
+    /**
+     * Check that two graphs have the same vertices, degrees and edges, asking every query the searches use.
+     * 
+     * @param expected  The original graph.
+     * @param actual    The graph to check.
+     * @param what      Which round trip, for messages.
+     */
+    static void same(Graph expected, Graph actual, String what){
+        int numberOfVertices = expected.getNumberOfVertices();
+        TestGraphs.check(actual.getNumberOfVertices() == numberOfVertices, what+": wrong number of vertices");
+        TestGraphs.check(actual.isSparse() == expected.isSparse(), what+": stored in the wrong form");
+        TestGraphs.check(actual.getMaxDegree() == expected.getMaxDegree(), what+": wrong largest degree");
+        int[] all = new int[numberOfVertices];
+        for(int vertex=0; vertex<numberOfVertices; ++vertex){
+            all[vertex] = vertex;
+        }
+        int[] neighbours = new int[Math.max(1, expected.getMaxDegree())];
+        int[] others = new int[Math.max(1, expected.getMaxDegree())];
+        int[] candidates = new int[numberOfVertices];
+        for(int vertex=0; vertex<numberOfVertices; ++vertex){
+            TestGraphs.check(actual.getDegree(vertex) == expected.getDegree(vertex), what+": wrong degree");
+            TestGraphs.check(actual.getLabel(vertex) == expected.getLabel(vertex), what+": wrong label");
+            int count = expected.getNeighbours(vertex, neighbours);
+            TestGraphs.check(actual.getNeighbours(vertex, others) == count
+                    && Arrays.equals(Arrays.copyOf(neighbours, count), Arrays.copyOf(others, count)),
+                    what+": wrong neighbours of "+vertex);
+            System.arraycopy(all, 0, candidates, 0, numberOfVertices);
+            int kept = actual.retainNeighbours(vertex, candidates, numberOfVertices);
+            TestGraphs.check(Arrays.equals(Arrays.copyOf(neighbours, count), Arrays.copyOf(candidates, kept)),
+                    what+": wrong neighbours retained for "+vertex);
+            for(int other=0; other<numberOfVertices; ++other){
+                TestGraphs.check(actual.isConnected(vertex, other) == expected.isConnected(vertex, other),
+                        what+": wrong edge "+vertex+" "+other);
+                TestGraphs.check(actual.nextNeighbour(vertex, other) == expected.nextNeighbour(vertex, other),
+                        what+": wrong next neighbour of "+vertex+" from "+other);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+import java.util.Random;
+
+/**
+ * Checks IncrementalClique against brute force through a random sequence of edge insertions and deletions: after
+ * every change its clique must be a clique of the current graph and as large as a maximum one.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class IncrementalTest {
+    
+    /**
+     * Run the checks.
+     * 
+     * @throws Exception    If a graph cannot be written or loaded.
+     */
+    static void run() throws Exception{
+        Random prng = new Random(161803);
+        for(int trial=0; trial<20; ++trial){
+            TestGraphs reference = new TestGraphs(2 + prng.nextInt(TestGraphs.MAX_BRUTE-1), prng.nextDouble(), prng);
+            MutableGraph graph = new MutableGraph(reference.load(prng.nextBoolean(), false));
+            IncrementalClique incremental = new IncrementalClique(graph, 2);
+            TestGraphs.check(incremental.getSize() == reference.cliqueNumber(), "Trial "+trial+": wrong first clique");
+            int numberOfVertices = reference.getNumberOfVertices();
+            for(int change=0; change<100; ++change){
+                int vertex1 = prng.nextInt(numberOfVertices);
+                int vertex2 = prng.nextInt(numberOfVertices);
+                if(vertex1 == vertex2){
+                    continue;
+                }
+                boolean add = prng.nextBoolean();
+                if(add){
+                    incremental.addEdge(vertex1, vertex2);
+                }
+                else{
+                    incremental.removeEdge(vertex1, vertex2);
+                }
+                reference.setEdge(vertex1, vertex2, add);
+                TestGraphs.check(reference.isClique(incremental.getClique()), "Trial "+trial+" change "+change
+                        +": not a clique");
+                TestGraphs.check(incremental.getSize() == reference.cliqueNumber(), "Trial "+trial+" change "
+                        +change+": clique of "+incremental.getSize()+" vertices, the maximum is "
+                        +reference.cliqueNumber());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Runs the regression tests of the searches and graph formats, and prints which passed. They need pj2 on the class
+ * path like the programs, but neither the pj2 launcher nor a cluster:
+ * 
+ *   javac -cp <pj2.jar> -d out *.java test/*.java
+ *   java -cp out:<pj2.jar> RunTests
+ * 
+ * Exits with status 1 if any test failed.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class RunTests {
+    
+    /**
+     * Classes of the tests, each with a static run method that throws if the test fails.
+     */
+    static final String[] TESTS = {"ExactTest", "EnumeratorTest", "GraphFormatTest", "CheckpointTest",
+            "IncrementalTest", "ServerTest", "EngineTest", "SchedulerTest"};
+    
+    /**
+     * Program execution begins here.
+     * 
+     * @param args  Not used.
+     */
+    public static void main(String[] args){
+        int failed = 0;
+        for(String name : TESTS){
+            long start = System.currentTimeMillis();
+            try{
+                Class.forName(name).getDeclaredMethod("run").invoke(null);
+                System.out.println(name+" passed in "+(System.currentTimeMillis()-start)+" ms");
+            }
+            catch(InvocationTargetException e){
+                ++failed;
+                System.out.println(name+" FAILED");
+                e.getCause().printStackTrace(System.out);
+            }
+            catch(ReflectiveOperationException e){
+                ++failed;
+                System.out.println(name+" is not a test: "+e);
+            }
+        }
+        System.out.println((TESTS.length-failed)+" of "+TESTS.length+" tests passed");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+}
\ No newline at end of file
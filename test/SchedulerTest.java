@@ -0,0 +1,55 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks the adaptive start scheduler on reduced graphs: its first restarts must start from every vertex left in the
+ * graph exactly once, none of them lost to a vertex reduced away, and vertices whose first restart would only give
+ * the same clique again must never be started from again.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class SchedulerTest {
+    
+    /**
+     * Run the checks.
+     * 
+     * @throws Exception    If a graph cannot be written or loaded.
+     */
+    static void run() throws Exception{
+        Random prng = new Random(577215);
+        for(int trial=0; trial<20; ++trial){
+            TestGraphs reference = new TestGraphs(20 + prng.nextInt(200), prng.nextDouble(), prng);
+            Graph graph = reference.load(prng.nextBoolean(), false);
+            
+            //Keep about a quarter of the vertices, as the reduction to a k-core would
+            int[] kept = new int[graph.getNumberOfVertices()];
+            int count = 0;
+            for(int vertex=0; vertex<graph.getNumberOfVertices(); ++vertex){
+                if(count == 0 || prng.nextInt(4) == 0){
+                    kept[count++] = vertex;
+                }
+            }
+            Graph reduced = graph.induce(Arrays.copyOf(kept, count));
+            
+            for(boolean deterministic : new boolean[]{false, true}){
+                StartScheduler starts = StartScheduler.create(StartScheduler.ADAPTIVE, new CoreDecomposition(graph));
+                edu.rit.util.Random random = new edu.rit.util.Random(trial);
+                boolean[] started = new boolean[count];
+                for(int iter=0; iter<count; ++iter){
+                    int vertex = starts.next(reduced, random);
+                    TestGraphs.check(vertex != -1, "Trial "+trial+": restart "+iter+" lost to a vertex reduced away");
+                    TestGraphs.check(!started[vertex], "Trial "+trial+": vertex "+vertex+" covered twice");
+                    started[vertex] = true;
+                    starts.report(reduced.getLabel(vertex), 1, deterministic);
+                }
+                
+                //Later restarts go to the groups, which are empty if every first restart was deterministic
+                for(int iter=0; iter<100; ++iter){
+                    int vertex = starts.next(reduced, random);
+                    TestGraphs.check(deterministic ? vertex == -1 : vertex >= 0 && vertex < count, "Trial "+trial
+                            +": restart started from "+vertex+" after the cover");
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+import java.util.Random;
+
+/**
+ * Checks the answers of CliqueServer against brute force, on graph files that list edges more than once: every
+ * answer must be a clique of the graph, hold the vertices the query asks for and be as large as the largest such.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class ServerTest {
+    
+    /**
+     * Run the checks.
+     * 
+     * @throws Exception    If a graph cannot be written or loaded.
+     */
+    static void run() throws Exception{
+        //Two 4-cliques sharing vertices 1, 2 and 4, with every edge listed both ways. Vertex 0 is not a neighbour of
+        //vertex 3 and must not end up in its answer.
+        TestGraphs graph = new TestGraphs(5, 0, new Random(0));
+        int[][] edges = {{0, 1}, {0, 2}, {0, 4}, {1, 2}, {1, 4}, {2, 4}, {1, 3}, {2, 3}, {3, 4}};
+        for(int[] edge : edges){
+            graph.setEdge(edge[0], edge[1], true);
+        }
+        for(boolean sparse : new boolean[]{false, true}){
+            CliqueServer server = new CliqueServer(graph.load(sparse, true), 1, 0, 16);
+            check(graph, server.answer("contains 3"), 1 << 3, 4, "contains 3");
+        }
+        
+        Random prng = new Random(577215);
+        for(int trial=0; trial<40; ++trial){
+            TestGraphs reference = new TestGraphs(1 + prng.nextInt(TestGraphs.MAX_BRUTE), prng.nextDouble(), prng);
+            int numberOfVertices = reference.getNumberOfVertices();
+            CliqueServer server = new CliqueServer(reference.load(prng.nextBoolean(), true), 2, 0, 16);
+            check(reference, server.answer("max"), 0, reference.cliqueNumber(), "Trial "+trial+" max");
+            for(int vertex=0; vertex<numberOfVertices; ++vertex){
+                int largest = 0;
+                for(int clique : reference.maximalCliques()){
+                    if((clique & (1 << vertex)) != 0){
+                        largest = Math.max(largest, Integer.bitCount(clique));
+                    }
+                }
+                check(reference, server.answer("contains "+vertex), 1 << vertex, largest,
+                        "Trial "+trial+" contains "+vertex);
+            }
+        }
+    }
+    
+    /**
+     * Check an answer.
+     * 
+     * @param reference     The graph.
+     * @param answer        The answer.
+     * @param required      Bit mask of the vertices the clique must hold.
+     * @param size          Number of vertices the clique must have.
+     * @param what          The query, for messages.
+     */
+    static void check(TestGraphs reference, String answer, int required, int size, String what){
+        String[] words = answer.split(" ");
+        TestGraphs.check(words[0].equals("OK") && words[2].equals("maximum"), what+": answered "+answer);
+        int[] vertices = new int[words.length-3];
+        for(int idx=0; idx<vertices.length; ++idx){
+            vertices[idx] = Integer.parseInt(words[idx+3]);
+        }
+        TestGraphs.check(Integer.parseInt(words[1]) == vertices.length && vertices.length == size,
+                what+": answered "+answer+", the largest has "+size+" vertices");
+        TestGraphs.check(reference.isClique(vertices), what+": answered "+answer+", not a clique");
+        TestGraphs.check((TestGraphs.mask(vertices) & required) == required, what+": answered "+answer
+                +", missing a vertex asked for");
+    }
+}
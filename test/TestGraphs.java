@@ -0,0 +1,279 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Random graphs for the tests, and the answers to check the searches against, found by brute force over every subset
+ * of the vertices. Only graphs of at most MAX_BRUTE vertices are solved that way, so that it takes no time.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class TestGraphs {
+    
+    /**
+     * Most vertices of a graph solved by brute force.
+     */
+    static final int MAX_BRUTE = 16;
+    
+    private boolean[][] edges;      //  Adjacency matrix
+    private int numberOfVertices;   //  Number of vertices
+    
+    /**
+     * Draw a random graph where every pair of vertices is an edge with the given probability.
+     * 
+     * @param _numberOfVertices     Number of vertices, at most MAX_BRUTE for the brute force.
+     * @param density               Probability of every edge.
+     * @param prng                  Random number generator.
+     */
+    TestGraphs(int _numberOfVertices, double density, Random prng){
+        numberOfVertices = _numberOfVertices;
+        edges = new boolean[numberOfVertices][numberOfVertices];
+        for(int i=0; i<numberOfVertices; ++i){
+            for(int j=i+1; j<numberOfVertices; ++j){
+                if(prng.nextDouble() < density){
+                    edges[i][j] = edges[j][i] = true;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Get the number of vertices.
+     * 
+     * @return  Number of vertices.
+     */
+    int getNumberOfVertices(){
+        return numberOfVertices;
+    }
+    
+    /**
+     * If two vertices are connected.
+     * 
+     * @param vertex1   First vertex.
+     * @param vertex2   Second vertex.
+     * @return          true if they are.
+     */
+    boolean isConnected(int vertex1, int vertex2){
+        return edges[vertex1][vertex2];
+    }
+    
+    /**
+     * Add or remove an edge.
+     * 
+     * @param vertex1   First vertex.
+     * @param vertex2   Second vertex.
+     * @param present   true to add it, false to remove it.
+     */
+    void setEdge(int vertex1, int vertex2, boolean present){
+        edges[vertex1][vertex2] = edges[vertex2][vertex1] = present;
+    }
+    
+    /**
+     * Write the graph as an edge list. The edge count in the header picks how Graph stores it, so it is written as 0
+     * for a graph to be stored sparse and as the number of pairs for one to be stored dense.
+     * 
+     * @param file          File to write.
+     * @param sparse        true to have the graph stored in compressed sparse row form.
+     * @param duplicates    true to list every edge twice, once each way.
+     * @throws IOException  If the file cannot be written.
+     */
+    void write(File file, boolean sparse, boolean duplicates) throws IOException{
+        PrintWriter out = new PrintWriter(new FileWriter(file));
+        out.println(numberOfVertices+" "+(sparse ? 0 : numberOfVertices*(numberOfVertices-1)/2));
+        for(int i=0; i<numberOfVertices; ++i){
+            for(int j=i+1; j<numberOfVertices; ++j){
+                if(edges[i][j]){
+                    out.println(i+" "+j);
+                    if(duplicates){
+                        out.println(j+" "+i);
+                    }
+                }
+            }
+        }
+        out.close();
+    }
+    
+    /**
+     * Write the graph as an edge list and load it.
+     * 
+     * @param sparse        true to have the graph stored in compressed sparse row form.
+     * @param duplicates    true to list every edge twice, once each way.
+     * @return              The graph.
+     * @throws IOException  If the file cannot be written or read.
+     */
+    Graph load(boolean sparse, boolean duplicates) throws IOException{
+        File file = File.createTempFile("graph", ".txt");
+        try{
+            write(file, sparse, duplicates);
+            return new GraphLoader(file, 2).load();
+        }
+        finally{
+            file.delete();
+        }
+    }
+    
+    /**
+     * Get the adjacency of every vertex as a bit mask.
+     * 
+     * @return  Neighbours of every vertex(index).
+     */
+    private int[] masks(){
+        int[] masks = new int[numberOfVertices];
+        for(int i=0; i<numberOfVertices; ++i){
+            for(int j=0; j<numberOfVertices; ++j){
+                if(edges[i][j]){
+                    masks[i] |= 1 << j;
+                }
+            }
+        }
+        return masks;
+    }
+    
+    /**
+     * Find every maximal clique by trying every subset of the vertices.
+     * 
+     * @return  The maximal cliques, each a bit mask of its vertices.
+     */
+    ArrayList<Integer> maximalCliques(){
+        int[] masks = masks();
+        ArrayList<Integer> cliques = new ArrayList<Integer>();
+        for(int subset=1; subset<(1 << numberOfVertices); ++subset){
+            boolean clique = true;
+            for(int vertex=0; vertex<numberOfVertices && clique; ++vertex){
+                if((subset & (1 << vertex)) != 0){
+                    clique = (subset & ~(1 << vertex) & ~masks[vertex]) == 0;
+                }
+            }
+            if(!clique){
+                continue;
+            }
+            boolean maximal = true;
+            for(int vertex=0; vertex<numberOfVertices && maximal; ++vertex){
+                if((subset & (1 << vertex)) == 0 && (subset & ~masks[vertex]) == 0){
+                    maximal = false;
+                }
+            }
+            if(maximal){
+                cliques.add(subset);
+            }
+        }
+        return cliques;
+    }
+    
+    /**
+     * Find the number of vertices of a maximum clique by trying every subset of the vertices.
+     * 
+     * @return  Size of a maximum clique.
+     */
+    int cliqueNumber(){
+        int largest = 0;
+        for(int clique : maximalCliques()){
+            largest = Math.max(largest, Integer.bitCount(clique));
+        }
+        return largest;
+    }
+    
+    /**
+     * Find every maximal clique of at least the given size with plain Bron-Kerbosch, for graphs too large for brute
+     * force. Without pivoting or any other cut, so that it is easy to trust.
+     * 
+     * @param size  Fewest vertices of a clique to keep.
+     * @return      The maximal cliques, each its vertices in ascending order.
+     */
+    HashSet<String> maximalCliques(int size){
+        HashSet<String> cliques = new HashSet<String>();
+        BitSet candidates = new BitSet();
+        candidates.set(0, numberOfVertices);
+        extend(new ArrayList<Integer>(), candidates, new BitSet(), size, cliques);
+        return cliques;
+    }
+    
+    /**
+     * Extend a clique by every candidate in turn, reporting it once neither candidates nor excluded vertices are left.
+     * 
+     * @param clique        The clique so far.
+     * @param candidates    Vertices adjacent to all of the clique that may extend it.
+     * @param excluded      Vertices adjacent to all of the clique already tried.
+     * @param size          Fewest vertices of a clique to keep.
+     * @param cliques       The cliques found.
+     */
+    private void extend(ArrayList<Integer> clique, BitSet candidates, BitSet excluded, int size,
+            HashSet<String> cliques){
+        if(candidates.isEmpty()){
+            if(excluded.isEmpty() && clique.size() >= size){
+                ArrayList<Integer> sorted = new ArrayList<Integer>(clique);
+                Collections.sort(sorted);
+                cliques.add(sorted.toString());
+            }
+            return;
+        }
+        for(int vertex=candidates.nextSetBit(0); vertex>=0; vertex=candidates.nextSetBit(vertex+1)){
+            BitSet nextCandidates = new BitSet();
+            BitSet nextExcluded = new BitSet();
+            for(int other=0; other<numberOfVertices; ++other){
+                if(edges[vertex][other]){
+                    if(candidates.get(other)){
+                        nextCandidates.set(other);
+                    }
+                    if(excluded.get(other)){
+                        nextExcluded.set(other);
+                    }
+                }
+            }
+            clique.add(vertex);
+            extend(clique, nextCandidates, nextExcluded, size, cliques);
+            clique.remove(clique.size()-1);
+            candidates.clear(vertex);
+            excluded.set(vertex);
+        }
+    }
+    
+    /**
+     * Turn a list of vertices into a bit mask.
+     * 
+     * @param vertices  The vertices.
+     * @return          The bit mask.
+     */
+    static int mask(int[] vertices){
+        int mask = 0;
+        for(int vertex : vertices){
+            mask |= 1 << vertex;
+        }
+        return mask;
+    }
+    
+    /**
+     * Check that the given vertices are distinct and pairwise connected.
+     * 
+     * @param vertices  The vertices.
+     * @return          true if they form a clique.
+     */
+    boolean isClique(int[] vertices){
+        for(int i=0; i<vertices.length; ++i){
+            for(int j=i+1; j<vertices.length; ++j){
+                if(vertices[i] == vertices[j] || !edges[vertices[i]][vertices[j]]){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Fail a test unless a condition holds.
+     * 
+     * @param condition     The condition.
+     * @param message       What went wrong if it does not hold.
+     */
+    static void check(boolean condition, String message){
+        if(!condition){
+            throw new AssertionError(message);
+        }
+    }
+}
\ No newline at end of file
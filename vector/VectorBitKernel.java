@@ -0,0 +1,127 @@
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * BitKernel on SIMD registers, with the incubating Vector API of JDK 16 and later. Every step takes as many longs as
+ * the widest register of the processor holds, 4 with AVX2 and 8 with AVX-512, and the longs left over at the end are
+ * done one at a time. Bitsets shorter than two registers are left to the scalar kernel, as adding up the lanes at the
+ * end costs more than the registers save on them.
+ * 
+ * The Vector API of JDK 17 has no lanewise bit count, so counting adds up the bits of every lane with shifts, adds
+ * and masks, then the lanes once at the end.
+ * 
+ * This class is kept apart from the others because it needs JDK 16 or later and --add-modules jdk.incubator.vector
+ * both to compile and to run; BitKernel loads it by name and falls back to the scalar kernel if it cannot.
+ * 
+ * @author Yogesh Jagadeesan and Dler Ahmad
+ */
+public class VectorBitKernel extends BitKernel.Scalar {
+    
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    
+    /**
+     * Shortest bitset, in longs, worth doing on SIMD registers.
+     */
+    static final int MIN_WORDS = 2*SPECIES.length();
+    
+    private static final long M1 = 0x5555555555555555L;    //  Every other bit
+    private static final long M2 = 0x3333333333333333L;    //  Every other pair of bits
+    private static final long M4 = 0x0f0f0f0f0f0f0f0fL;    //  Every other nibble
+    
+    @Override
+    public String getName(){
+        return "vector"+SPECIES.vectorBitSize();
+    }
+    
+    @Override
+    public boolean and(long[] a, long[] b, long[] result, int words){
+        if(words < MIN_WORDS){
+            return super.and(a, b, result, words);
+        }
+        int bound = SPECIES.loopBound(words);
+        LongVector any = LongVector.zero(SPECIES);
+        int w = 0;
+        for(; w<bound; w+=SPECIES.length()){
+            LongVector v = LongVector.fromArray(SPECIES, a, w).and(LongVector.fromArray(SPECIES, b, w));
+            v.intoArray(result, w);
+            any = any.or(v);
+        }
+        long rest = any.reduceLanes(VectorOperators.OR);
+        for(; w<words; ++w){
+            result[w] = a[w] & b[w];
+            rest |= result[w];
+        }
+        return rest != 0;
+    }
+    
+    @Override
+    public void andNot(long[] a, long[] b, long[] result, int from, int words){
+        if(words-from < MIN_WORDS){
+            super.andNot(a, b, result, from, words);
+            return;
+        }
+        int w = from;
+        int bound = from + SPECIES.loopBound(words-from);
+        for(; w<bound; w+=SPECIES.length()){
+            LongVector.fromArray(SPECIES, a, w).and(LongVector.fromArray(SPECIES, b, w).not()).intoArray(result, w);
+        }
+        for(; w<words; ++w){
+            result[w] = a[w] & ~b[w];
+        }
+    }
+    
+    @Override
+    public int andCount(long[] a, long[] b, int words){
+        if(words < MIN_WORDS){
+            return super.andCount(a, b, words);
+        }
+        int bound = SPECIES.loopBound(words);
+        LongVector sum = LongVector.zero(SPECIES);
+        int w = 0;
+        for(; w<bound; w+=SPECIES.length()){
+            sum = sum.add(bitCount(LongVector.fromArray(SPECIES, a, w).and(LongVector.fromArray(SPECIES, b, w))));
+        }
+        int count = (int)sum.reduceLanes(VectorOperators.ADD);
+        for(; w<words; ++w){
+            count += Long.bitCount(a[w] & b[w]);
+        }
+        return count;
+    }
+    
+    @Override
+    public int count(long[] a, int words){
+        if(words < MIN_WORDS){
+            return super.count(a, words);
+        }
+        int bound = SPECIES.loopBound(words);
+        LongVector sum = LongVector.zero(SPECIES);
+        int w = 0;
+        for(; w<bound; w+=SPECIES.length()){
+            sum = sum.add(bitCount(LongVector.fromArray(SPECIES, a, w)));
+        }
+        int count = (int)sum.reduceLanes(VectorOperators.ADD);
+        for(; w<words; ++w){
+            count += Long.bitCount(a[w]);
+        }
+        return count;
+    }
+    
+    /**
+     * Count the bits set in every lane, by adding them up in pairs, then nibbles, then across the bytes. The bytes are
+     * added with shifts rather than the usual multiply, as AVX2 has no 64-bit lane multiply and would have to emulate
+     * it.
+     * 
+     * @param v     The longs.
+     * @return      Number of bits set in every lane.
+     */
+    private static LongVector bitCount(LongVector v){
+        v = v.sub(v.lanewise(VectorOperators.LSHR, 1).and(M1));
+        v = v.and(M2).add(v.lanewise(VectorOperators.LSHR, 2).and(M2));
+        v = v.add(v.lanewise(VectorOperators.LSHR, 4)).and(M4);
+        v = v.add(v.lanewise(VectorOperators.LSHR, 8));
+        v = v.add(v.lanewise(VectorOperators.LSHR, 16));
+        v = v.add(v.lanewise(VectorOperators.LSHR, 32));
+        return v.and(0x7f);
+    }
+}